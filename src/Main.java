@@ -5,14 +5,17 @@ import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import model.pa.dataLoader.DatasetLoader;
+import model.pa.dataLoader.NetworkJournal;
 import model.pa.graph.Graph;
-import model.pa.graph.GraphAdjacencyMatrix;
+import model.pa.graph.PersistentGraph;
 import model.pa.model.Airport;
 import model.pa.model.AirportNetwork;
 import model.pa.model.Route;
 import view.AirportNetworkView;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class Main extends Application {
 
@@ -21,17 +24,33 @@ public class Main extends Application {
     }
     private static final String DATAFILE = "dataset\\iberian";
     private static final String ROUTE = "routes_1.txt";
+    private static final String JOURNAL = "network.journal";
 
 
     @Override
     public void start(Stage primaryStage) {
 
 
-        AirportNetwork model = new AirportNetwork();
+        //undo backups of a PersistentGraph are O(1) snapshots instead of copies of the whole network
+        AirportNetwork model = new AirportNetwork(new PersistentGraph<>());
+        //the last session is recovered from the journal, the dataset is only loaded when there's none
+        NetworkJournal journal = null;
+        boolean recovered = false;
         try {
-            model.loadNetwork(DATAFILE, ROUTE);
-        } catch (FileNotFoundException e) {
+            journal = new NetworkJournal(Paths.get(JOURNAL));
+            recovered = journal.replay(model);
+        } catch (IOException e) {
+            //whatever was replayed before the journal became unreadable is dropped, the dataset is loaded instead
             e.printStackTrace();
+            model.reset();
+        }
+        model.setJournal(journal);
+        if (!recovered) {
+            try {
+                model.loadNetwork(DATAFILE, ROUTE);
+            } catch (FileNotFoundException e) {
+                e.printStackTrace();
+            }
         }
         AirportNetworkView view = new AirportNetworkView(model, primaryStage);
         AirportNetworkController controller = new AirportNetworkController(view, model);
@@ -42,6 +61,10 @@ public class Main extends Application {
         stage.setTitle("Airport Network");
         stage.setScene(scene);
         stage.setResizable(false);
+        final NetworkJournal openJournal = journal;
+        stage.setOnHidden(event -> {
+            if (openJournal != null) openJournal.close();
+        });
         stage.show();
 
         view.initGraphDisplay();
@@ -0,0 +1,42 @@
+package command;
+
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+
+/**
+ * Class AddAirportCommand extended class of Command
+ * Undone by removing the airport it added
+ */
+public class AddAirportCommand extends Command {
+    private final Airport airport;
+
+    /**
+     * AddAirportCommand constructor
+     * @param model
+     * @param airport the airport to add
+     */
+    public AddAirportCommand(AirportNetwork model, Airport airport) {
+        super(model);
+        this.airport = airport;
+    }
+
+    /**
+     * Adds the airport
+     * @return boolean
+     */
+    @Override
+    public boolean execute() {
+        model.addAirport(airport);
+        return true;
+    }
+
+    @Override
+    public void undo() {
+        model.removeAirport(airport.getName());
+    }
+
+    @Override
+    public void redo() {
+        execute();
+    }
+}
@@ -0,0 +1,47 @@
+package command;
+
+import model.pa.model.AirportNetwork;
+
+/**
+ * Class AddRouteCommand extended class of Command
+ * Undone by removing the route it added
+ */
+public class AddRouteCommand extends Command {
+    private final String origin;
+    private final String destination;
+    private final int distance;
+
+    /**
+     * AddRouteCommand constructor
+     * @param model
+     * @param origin name of the origin airport
+     * @param destination name of the destination airport
+     * @param distance distance of the route
+     */
+    public AddRouteCommand(AirportNetwork model, String origin, String destination, int distance) {
+        super(model);
+        this.origin = origin;
+        this.destination = destination;
+        this.distance = distance;
+    }
+
+    /**
+     * Adds the route
+     * @return boolean
+     */
+    @Override
+    public boolean execute() {
+        model.addRoute(origin, destination, distance);
+        return true;
+    }
+
+    @Override
+    public void undo() {
+        model.removeRoute(origin, destination);
+    }
+
+    @Override
+    public void redo() {
+        execute();
+    }
+}
@@ -1,6 +1,8 @@
 package command;
 
+import model.pa.graph.Graph;
 import model.pa.graph.GraphAdjacencyMatrix;
+import model.pa.graph.PersistentGraph;
 import model.pa.model.Airport;
 import model.pa.model.AirportNetwork;
 import model.pa.model.Route;
@@ -8,10 +10,13 @@ import view.AirportNetworkView;
 
 /**
  * Abstract class Command
+ * By default a command is undone by restoring a backup of the whole network taken before it ran,
+ * commands that know their inverse operation override undo and redo instead
  */
 public abstract class Command  {
     public AirportNetwork model;
-    private GraphAdjacencyMatrix<Airport, Route> backup;
+    private Graph<Airport, Route> backup;
+    private int weight = 1;
 
     /**
      * Command constructor
@@ -22,23 +27,44 @@ public abstract class Command  {
     }
 
     /**
-     * Assign the value of the current GraphAdjacencyMatrix to the backup
+     * Assign the value of the current network to the backup, a PersistentGraph is snapshotted in O(1)
      */
     void backup(){
-       backup = new GraphAdjacencyMatrix<Airport, Route>((GraphAdjacencyMatrix<Airport, Route>) model.getNetwork());
+       Graph<Airport, Route> network = model.getNetwork();
+       if (network instanceof PersistentGraph) backup = ((PersistentGraph<Airport, Route>) network).snapshot();
+       else {
+           backup = new GraphAdjacencyMatrix<Airport, Route>((GraphAdjacencyMatrix<Airport, Route>) network);
+           weight = 1 + network.numVertices() + network.numEdges();
+       }
     }
 
     /**
-     * Restores the current model to the last backup saved
+     * Restores the current model to the last backup saved.
+     * The network it replaces becomes the backup, so that redo can go back to it
      */
     public void undo() {
+        Graph<Airport, Route> current = model.getNetwork();
         model.restore(backup);
+        backup = current;
     }
 
+    /**
+     * Does the command again after it was undone
+     */
+    public void redo() {
+        undo();
+    }
+
+    /**
+     * Rough measure of the memory the command keeps alive, in vertices and edges
+     * @return int
+     */
+    public int weight() { return weight; }
+
     /**
      * Abstract method to be used in instances of Command
      * @return boolean
      */
     public abstract boolean execute();
 
-}
\ No newline at end of file
+}
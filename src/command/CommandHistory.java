@@ -1,28 +1,92 @@
 package command;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 /**
  * Class CommandHistory
- * Functions in coordenation to Command to create a stack of various Commands in chronological order
+ * Functions in coordenation to Command to create a stack of various Commands in chronological order.
+ * Undone commands go to a second stack so they can be redone, until a new command is pushed.
+ * The oldest commands are forgotten once there are more than maxDepth of them or they weigh more than maxWeight
  */
 public class CommandHistory {
-    private final Stack<Command> history = new Stack<>();
+    /** Number of commands kept when no bound is given */
+    public static final int DEFAULT_DEPTH = 200;
+    /** Total weight of the commands kept when no bound is given, see Command.weight() */
+    public static final long DEFAULT_WEIGHT = 1_000_000;
+
+    private final Deque<Command> history = new ArrayDeque<>();
+    private final Deque<Command> undone = new ArrayDeque<>();
+    private final int maxDepth;
+    private final long maxWeight;
+    private long weight;
+
+    /**
+     * CommandHistory constructor
+     */
+    public CommandHistory() {
+        this(DEFAULT_DEPTH, DEFAULT_WEIGHT);
+    }
 
     /**
-     * Pushes a new Command object into the stack
+     * CommandHistory constructor
+     * @param maxDepth maximum number of commands that can be undone
+     * @param maxWeight maximum total weight of the commands kept
+     */
+    public CommandHistory(int maxDepth, long maxWeight) {
+        if (maxDepth < 1 || maxWeight < 1) throw new IllegalArgumentException("Bounds must be positive");
+        this.maxDepth = maxDepth;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Executes a Command and pushes it if it succeeded
+     * @param c
+     * @return boolean the result of the command
+     */
+    public boolean execute(Command c) {
+        boolean done = c.execute();
+        if (done) push(c);
+        return done;
+    }
+
+    /**
+     * Pushes an executed Command object into the stack, the undone commands can't be redone anymore
      * @param c
      */
     public void push(Command c) {
+        for (Command u : undone) weight -= u.weight();
+        undone.clear();
         history.push(c);
+        weight += c.weight();
+        //the last command is kept even if it is heavier than the bound
+        while (history.size() > maxDepth || (weight > maxWeight && history.size() > 1)) {
+            weight -= history.removeLast().weight();
+        }
     }
 
     /**
-     * Pops the last object out of the stack
-     * @return Command
+     * Undoes the last Command
+     * @return boolean false if there was nothing to undo
      */
-    public Command pop() {
-        return history.pop();
+    public boolean undo() {
+        if (history.isEmpty()) return false;
+        Command c = history.pop();
+        c.undo();
+        undone.push(c);
+        return true;
+    }
+
+    /**
+     * Redoes the last undone Command
+     * @return boolean false if there was nothing to redo
+     */
+    public boolean redo() {
+        if (undone.isEmpty()) return false;
+        Command c = undone.pop();
+        c.redo();
+        history.push(c);
+        return true;
     }
 
     /**
@@ -30,4 +94,22 @@ public class CommandHistory {
      * @return boolean
      */
     public boolean isEmpty() { return history.isEmpty(); }
-}
\ No newline at end of file
+
+    /**
+     * Checks if there are commands to redo
+     * @return boolean
+     */
+    public boolean canRedo() { return !undone.isEmpty(); }
+
+    /**
+     *
+     * @return the number of commands that can be undone
+     */
+    public int size() { return history.size(); }
+
+    /**
+     *
+     * @return the total weight of the commands kept
+     */
+    public long getWeight() { return weight; }
+}
@@ -0,0 +1,63 @@
+package command;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.pa.graph.Edge;
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import model.pa.model.AirportNetworkException;
+import model.pa.model.Route;
+
+/**
+ * Class RemoveAirportCommand extended class of Command
+ * Keeps the airport and its routes, undone by adding them back
+ */
+public class RemoveAirportCommand extends Command {
+    private final String name;
+    private Airport airport;
+    private final List<Route> routes = new ArrayList<>();
+
+    /**
+     * RemoveAirportCommand constructor
+     * @param model
+     * @param name name of the airport to remove
+     */
+    public RemoveAirportCommand(AirportNetwork model, String name) {
+        super(model);
+        this.name = name;
+    }
+
+    /**
+     * Removes the airport and its routes
+     * @return boolean
+     */
+    @Override
+    public boolean execute() {
+        Vertex<Airport> vertex = model.findAirport(name);
+        if (vertex == null) throw new AirportNetworkException("This airport doesn't exist.");
+        airport = vertex.element();
+        routes.clear();
+        for (Edge<Route, Airport> route : model.getIncidentRoutes(name)) {
+            routes.add(route.element());
+        }
+        model.removeAirport(name);
+        return true;
+    }
+
+    @Override
+    public void undo() {
+        model.addAirport(airport);
+        for (Route route : routes) {
+            model.addRoute(route.getOrigin().getName(), route.getDestination().getName(), route.getDistance());
+        }
+    }
+
+    @Override
+    public void redo() {
+        execute();
+    }
+
+    @Override
+    public int weight() { return 1 + routes.size(); }
+}
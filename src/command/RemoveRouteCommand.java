@@ -0,0 +1,54 @@
+package command;
+
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import model.pa.model.AirportNetworkException;
+
+/**
+ * Class RemoveRouteCommand extended class of Command
+ * Keeps the distance of the route, undone by adding it back
+ */
+public class RemoveRouteCommand extends Command {
+    private final String origin;
+    private final String destination;
+    private int distance;
+
+    /**
+     * RemoveRouteCommand constructor
+     * @param model
+     * @param origin name of one airport of the route
+     * @param destination name of the other airport
+     */
+    public RemoveRouteCommand(AirportNetwork model, String origin, String destination) {
+        super(model);
+        this.origin = origin;
+        this.destination = destination;
+    }
+
+    /**
+     * Removes the route
+     * @return boolean
+     */
+    @Override
+    public boolean execute() {
+        Vertex<Airport> a1 = model.findAirport(origin);
+        Vertex<Airport> a2 = model.findAirport(destination);
+        if (a1 == null || a2 == null || !model.getNetwork().areAdjacent(a1, a2)) {
+            throw new AirportNetworkException("This route doesn't exist.");
+        }
+        distance = model.getEdgeBetweenTwoV(a1, a2).element().getDistance();
+        model.removeRoute(origin, destination);
+        return true;
+    }
+
+    @Override
+    public void undo() {
+        model.addRoute(origin, destination, distance);
+    }
+
+    @Override
+    public void redo() {
+        execute();
+    }
+}
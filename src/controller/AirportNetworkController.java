@@ -1,14 +1,16 @@
 package controller;
 
+import command.AddAirportCommand;
+import command.AddRouteCommand;
 import command.Command;
 import command.CommandHistory;
 import command.CopyCommand;
+import command.RemoveAirportCommand;
+import command.RemoveRouteCommand;
 import model.pa.dijkstra.DijkstraConcreteResult;
-import model.pa.graph.Edge;
 import model.pa.model.Airport;
 import model.pa.model.AirportNetwork;
 import model.pa.model.AirportNetworkException;
-import model.pa.model.Route;
 import view.AirportNetworkView;
 
 import java.io.FileNotFoundException;
@@ -38,13 +40,6 @@ public class AirportNetworkController {
         this.model.addObserver(this.view);
         history = new CommandHistory();
 
-        backup(new CopyCommand(model));
-
-    }
-
-    public void backup(Command command){
-        command.execute();
-        history.push(command);
     }
 
     /**
@@ -59,8 +54,7 @@ public class AirportNetworkController {
             if (name.trim().isEmpty() || iata.trim().isEmpty() || x.trim().isEmpty() || y.trim().isEmpty()) {
                 view.displayError("Name, Iata, X and Y cannot be null.");
             }
-            backup(new CopyCommand(model));
-            model.addAirport(new Airport(name, iata, Integer.parseInt(x), Integer.parseInt(y)));
+            history.execute(new AddAirportCommand(model, new Airport(name, iata, Integer.parseInt(x), Integer.parseInt(y))));
             //System.out.println(model.airportCount());
             view.clearError();
             view.clearControls();
@@ -81,11 +75,7 @@ public class AirportNetworkController {
                 view.displayError("Name and iata cannot be null.");
                 return;
             }
-            backup(new CopyCommand(model));
-            for (Edge<Route, Airport> r : model.getIncidentRoutes(view.getNameAirportAdd())) {
-                model.removeRoute(r);
-            }
-            model.removeAirport(view.getNameAirportAdd());
+            history.execute(new RemoveAirportCommand(model, view.getNameAirportAdd()));
             view.clearError();
             view.clearControls();
         }catch (AirportNetworkException e) {
@@ -108,8 +98,7 @@ public class AirportNetworkController {
                 view.displayError("You must provide a distance.");
                 return;
             }
-            backup(new CopyCommand(model));
-            model.addRoute(view.getCombo1(), view.getCombo2(), Integer.parseInt( view.getDistanceAdd()));
+            history.execute(new AddRouteCommand(model, view.getCombo1(), view.getCombo2(), Integer.parseInt( view.getDistanceAdd())));
         } catch (AirportNetworkException e) {
             view.displayError(e.getMessage());
         }catch (NumberFormatException e2) {
@@ -127,8 +116,7 @@ public class AirportNetworkController {
                view.displayError("You must select the airports.");
                return;
            }
-           backup(new CopyCommand(model));
-           model.removeRoute(view.getCombo1(), view.getCombo2());
+           history.execute(new RemoveRouteCommand(model, view.getCombo1(), view.getCombo2()));
 
 
            view.clearError();
@@ -144,13 +132,21 @@ public class AirportNetworkController {
      * This function restores the previous state
      */
     public void doUndo() {
-        if (history.isEmpty()){
-            return;
+        try {
+            history.undo();
+        } catch (AirportNetworkException e) {
+            view.displayError(e.getMessage());
         }
+    }
 
-        Command command = history.pop();
-        if (command != null) {
-            command.undo();
+    /**
+     * This function does again the last undone change
+     */
+    public void doRedo() {
+        try {
+            history.redo();
+        } catch (AirportNetworkException e) {
+            view.displayError(e.getMessage());
         }
     }
 
@@ -172,8 +168,11 @@ public class AirportNetworkController {
      */
     public void doLoadMap (String folderpath, String routes) {
         try {
-            history.push(new CopyCommand(this.model));
+            //loading replaces too much to record, the whole network is backed up
+            Command command = new CopyCommand(this.model);
+            command.execute();
             model.loadNetwork(folderpath, routes);
+            history.push(command);
         }catch (FileNotFoundException e) {
             view.displayError("FIle not found.");
         }
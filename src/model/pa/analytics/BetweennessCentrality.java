@@ -0,0 +1,254 @@
+package model.pa.analytics;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import model.pa.dijkstra.IndexedMinHeap;
+import model.pa.graph.Graph;
+import model.pa.graph.GraphSnapshot;
+import model.pa.graph.Vertex;
+import model.pa.model.Route;
+
+/**
+ * Betweenness centrality of every vertex, weighted by route distance: the number of shortest paths between
+ * other pairs of vertices that go through it, where a pair with several shortest paths counts the fraction of them.
+ * It uses Brandes' algorithm over a GraphSnapshot: one Dijkstra search per source, each in its own fork-join task,
+ * and a pass back through the vertices in the order they were settled to add up the dependencies.
+ * Every task borrows a worker with its arrays and its own accumulator from a shared pool, so there are only as many
+ * workers as searches running at once, and the accumulators are only added up at the end.
+ * In sampled mode only some sources (pivots) are searched and the scores are scaled up, which gives an unbiased
+ * estimate of the exact scores
+ * @param <V>
+ */
+public class BetweennessCentrality<V> {
+    private final GraphSnapshot<V, Route> snapshot;
+    private final double[] scores;
+    private final int pivots;
+
+    private BetweennessCentrality(GraphSnapshot<V, Route> snapshot, double[] scores, int pivots) {
+        this.snapshot = snapshot;
+        this.scores = scores;
+        this.pivots = pivots;
+    }
+
+    /**
+     * Calculates the exact betweenness of every vertex of a graph
+     * @param network the graph
+     * @return the scores
+     */
+    public static <V> BetweennessCentrality<V> compute(Graph<V, Route> network) {
+        return compute(GraphSnapshot.of(network, Route::getDistance));
+    }
+
+    /**
+     * Calculates the exact betweenness of every vertex of a snapshot
+     * @param snapshot the graph
+     * @return the scores
+     */
+    public static <V> BetweennessCentrality<V> compute(GraphSnapshot<V, Route> snapshot) {
+        int n = snapshot.numVertices();
+        int[] sources = new int[n];
+        for (int i = 0; i < n; i++) sources[i] = i;
+        return new BetweennessCentrality<>(snapshot, accumulate(snapshot, sources), n);
+    }
+
+    /**
+     * Estimates the betweenness of every vertex of a snapshot from the searches of some random sources
+     * @param snapshot the graph
+     * @param pivots number of sources, all the vertices if it is not smaller than their number
+     * @param random chooses the sources
+     * @return the scores
+     */
+    public static <V> BetweennessCentrality<V> sample(GraphSnapshot<V, Route> snapshot, int pivots, Random random) {
+        int n = snapshot.numVertices();
+        if (pivots <= 0) throw new IllegalArgumentException("The number of pivots must be positive");
+        if (pivots >= n) return compute(snapshot);
+        //partial Fisher-Yates shuffle, the first pivots ids are the sample
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) ids[i] = i;
+        for (int i = 0; i < pivots; i++) {
+            int j = i + random.nextInt(n - i);
+            int t = ids[i];
+            ids[i] = ids[j];
+            ids[j] = t;
+        }
+        double[] scores = accumulate(snapshot, Arrays.copyOf(ids, pivots));
+        double scale = (double) n / pivots;
+        for (int i = 0; i < n; i++) scores[i] *= scale;
+        return new BetweennessCentrality<>(snapshot, scores, pivots);
+    }
+
+    private static double[] accumulate(GraphSnapshot<?, Route> snapshot, int[] sources) {
+        int n = snapshot.numVertices();
+        //idle workers, a task takes one or creates it and gives it back, so once every task is done all of them are here
+        ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<>();
+        if (sources.length > 0) {
+            ForkJoinPool.commonPool().invoke(new SourceTask(snapshot, sources, 0, sources.length, workers));
+        }
+
+        double[] scores = new double[n];
+        for (Worker worker : workers) {
+            for (int i = 0; i < n; i++) scores[i] += worker.centrality[i];
+        }
+        //the routes go both ways, so every pair was counted from both of its ends
+        for (int i = 0; i < n; i++) scores[i] /= 2;
+        return scores;
+    }
+
+    /**
+     * Splits a range of sources in halves until there is one per task
+     */
+    private static final class SourceTask extends RecursiveAction {
+        private final GraphSnapshot<?, Route> snapshot;
+        private final int[] sources;
+        private final int from;
+        private final int to;
+        private final Queue<Worker> workers;
+
+        SourceTask(GraphSnapshot<?, Route> snapshot, int[] sources, int from, int to, Queue<Worker> workers) {
+            this.snapshot = snapshot;
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.workers = workers;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                Worker worker = workers.poll();
+                if (worker == null) worker = new Worker(snapshot);
+                worker.run(sources[from]);
+                workers.offer(worker);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SourceTask(snapshot, sources, from, middle, workers),
+                    new SourceTask(snapshot, sources, middle, to, workers));
+        }
+    }
+
+    /**
+     * Arrays of one search at a time, reused for all the sources it searches
+     */
+    private static final class Worker {
+        private final GraphSnapshot<?, Route> snapshot;
+        private final IndexedMinHeap heap;
+        private final double[] dist;
+        private final double[] sigma;
+        private final double[] delta;
+        private final int[] order;
+        private final double[] centrality;
+
+        Worker(GraphSnapshot<?, Route> snapshot) {
+            int n = snapshot.numVertices();
+            this.snapshot = snapshot;
+            this.heap = new IndexedMinHeap(n);
+            this.dist = new double[n];
+            this.sigma = new double[n];
+            this.delta = new double[n];
+            this.order = new int[n];
+            this.centrality = new double[n];
+            Arrays.fill(dist, Double.MAX_VALUE);
+        }
+
+        void run(int source) {
+            //Dijkstra counting the shortest paths to every vertex
+            int settled = 0;
+            dist[source] = 0;
+            sigma[source] = 1;
+            heap.insertOrDecrease(source, 0);
+            while (!heap.isEmpty()) {
+                int v = heap.poll();
+                order[settled++] = v;
+                for (int slot = snapshot.offset(v); slot < snapshot.offset(v + 1); slot++) {
+                    int w = snapshot.target(slot);
+                    double d = dist[v] + snapshot.weight(slot);
+                    if (d < dist[w]) {
+                        dist[w] = d;
+                        sigma[w] = sigma[v];
+                        heap.insertOrDecrease(w, d);
+                    } else if (d == dist[w] && w != v) {
+                        sigma[w] += sigma[v];
+                    }
+                }
+            }
+
+            //dependencies, from the farthest vertex back, over the edges that lie on a shortest path
+            for (int i = settled - 1; i > 0; i--) {
+                int w = order[i];
+                double share = (1 + delta[w]) / sigma[w];
+                for (int slot = snapshot.offset(w); slot < snapshot.offset(w + 1); slot++) {
+                    int v = snapshot.target(slot);
+                    if (v != w && dist[v] + snapshot.weight(slot) == dist[w]) delta[v] += sigma[v] * share;
+                }
+                centrality[w] += delta[w];
+            }
+
+            for (int i = 0; i < settled; i++) {
+                int v = order[i];
+                dist[v] = Double.MAX_VALUE;
+                sigma[v] = 0;
+                delta[v] = 0;
+            }
+        }
+    }
+
+    /**
+     *
+     * @return the snapshot the scores were calculated on
+     */
+    public GraphSnapshot<V, Route> getSnapshot() { return snapshot; }
+
+    /**
+     *
+     * @return the number of sources searched, the number of vertices if the scores are exact
+     */
+    public int getPivots() { return pivots; }
+
+    /**
+     *
+     * @return true if every vertex was a source
+     */
+    public boolean isExact() { return pivots == snapshot.numVertices(); }
+
+    /**
+     *
+     * @param v a vertex
+     * @return its betweenness, or 0 if it wasn't in the snapshot
+     */
+    public double score(Vertex<V> v) {
+        int id = snapshot.id(v);
+        return id == -1 ? 0 : scores[id];
+    }
+
+    /**
+     *
+     * @param id a vertex id of the snapshot
+     * @return its betweenness
+     */
+    public double score(int id) { return scores[id]; }
+
+    /**
+     *
+     * @param k how many vertices to return
+     * @return the k vertices with the highest betweenness and their scores, highest first
+     */
+    public LinkedHashMap<Vertex<V>, Double> top(int k) {
+        Integer[] ids = new Integer[scores.length];
+        for (int i = 0; i < ids.length; i++) ids[i] = i;
+        Arrays.sort(ids, (a, b) -> Double.compare(scores[b], scores[a]));
+        LinkedHashMap<Vertex<V>, Double> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(k, ids.length); i++) top.put(snapshot.vertex(ids[i]), scores[ids[i]]);
+        return top;
+    }
+
+    @Override
+    public String toString() {
+        return "BetweennessCentrality{" +
+                "vertices=" + scores.length +
+                ", pivots=" + pivots +
+                '}';
+    }
+}
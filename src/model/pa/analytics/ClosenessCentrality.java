@@ -0,0 +1,362 @@
+package model.pa.analytics;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import model.pa.dijkstra.SnapshotDijkstra;
+import model.pa.graph.Graph;
+import model.pa.graph.GraphSnapshot;
+import model.pa.graph.Vertex;
+import model.pa.model.Route;
+
+/**
+ * Closeness and harmonic centrality of every vertex, with distances given by the route distances.
+ * Closeness is corrected for disconnected networks (Wasserman and Faust): the inverse of the average distance to
+ * the vertices a vertex can reach, times the fraction of the other vertices it can reach. Harmonic centrality is the
+ * average of 1 / distance over all the other vertices, where the ones that can't be reached add 0.
+ * The single source searches run in parallel over a GraphSnapshot in fork-join tasks of BATCH sources, each task
+ * borrowing a SnapshotDijkstra from a pool shared by the tasks, so there are only as many as batches running at once.
+ * In sampled mode only some random sources are searched, every vertex adds up its distances to them and the sums
+ * are scaled up (Eppstein and Wang); getHarmonicError and getDistanceError bound the error of the estimates
+ * @param <V>
+ */
+public class ClosenessCentrality<V> {
+    private static final int BATCH = 32;
+
+    private final GraphSnapshot<V, Route> snapshot;
+    private final int sources;
+    //sum of the distances to the reachable vertices, number of reachable vertices (itself included) and sum of 1 / distance
+    private final double[] farness;
+    private final double[] reached;
+    private final double[] inverse;
+    private final double diameterBound;
+    private final int minWeight;
+
+    private ClosenessCentrality(GraphSnapshot<V, Route> snapshot, int sources, double[] farness, double[] reached,
+                                double[] inverse, double diameterBound) {
+        this.snapshot = snapshot;
+        this.sources = sources;
+        this.farness = farness;
+        this.reached = reached;
+        this.inverse = inverse;
+        this.diameterBound = diameterBound;
+        int min = Integer.MAX_VALUE;
+        for (int slot = 0; slot < snapshot.offset(snapshot.numVertices()); slot++) {
+            if (snapshot.weight(slot) > 0) min = Math.min(min, snapshot.weight(slot));
+        }
+        this.minWeight = min;
+    }
+
+    /**
+     * Calculates the exact closeness and harmonic centrality of every vertex of a graph
+     * @param network the graph
+     * @return the centralities
+     */
+    public static <V> ClosenessCentrality<V> compute(Graph<V, Route> network) {
+        return compute(GraphSnapshot.of(network, Route::getDistance));
+    }
+
+    /**
+     * Calculates the exact closeness and harmonic centrality of every vertex of a snapshot, one search per vertex
+     * @param snapshot the graph
+     * @return the centralities
+     */
+    public static <V> ClosenessCentrality<V> compute(GraphSnapshot<V, Route> snapshot) {
+        int n = snapshot.numVertices();
+        int[] sources = new int[n];
+        for (int i = 0; i < n; i++) sources[i] = i;
+        double[] farness = new double[n];
+        double[] reached = new double[n];
+        double[] inverse = new double[n];
+        //the routes go both ways, so the search from a vertex gives its own sums
+        run(snapshot, sources, false, worker -> {
+            int s = worker.source;
+            SnapshotDijkstra dijkstra = worker.dijkstra;
+            reached[s] = dijkstra.settledCount();
+            for (int i = 1; i < dijkstra.settledCount(); i++) {
+                double d = dijkstra.distance(dijkstra.settled(i));
+                farness[s] += d;
+                if (d > 0) inverse[s] += 1 / d;
+            }
+        });
+        return new ClosenessCentrality<>(snapshot, n, farness, reached, inverse, 0);
+    }
+
+    /**
+     * Estimates the closeness and harmonic centrality of every vertex of a snapshot from the searches of some random
+     * sources. With k sources the estimates are within getHarmonicError / getDistanceError of the exact values for
+     * all vertices at once, with the given confidence, and the errors shrink as 1 / sqrt(k)
+     * @param snapshot the graph
+     * @param samples number of sources, all the vertices if it is not smaller than their number
+     * @param random chooses the sources
+     * @return the centralities
+     */
+    public static <V> ClosenessCentrality<V> sample(GraphSnapshot<V, Route> snapshot, int samples, Random random) {
+        int n = snapshot.numVertices();
+        if (samples <= 0) throw new IllegalArgumentException("The number of samples must be positive");
+        if (samples >= n) return compute(snapshot);
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) ids[i] = i;
+        for (int i = 0; i < samples; i++) {
+            int j = i + random.nextInt(n - i);
+            int t = ids[i];
+            ids[i] = ids[j];
+            ids[j] = t;
+        }
+
+        ConcurrentLinkedQueue<Worker> workers = run(snapshot, Arrays.copyOf(ids, samples), true, worker -> {
+            SnapshotDijkstra dijkstra = worker.dijkstra;
+            for (int i = 0; i < dijkstra.settledCount(); i++) {
+                int v = dijkstra.settled(i);
+                double d = dijkstra.distance(v);
+                worker.farness[v] += d;
+                worker.reached[v]++;
+                if (d > 0) worker.inverse[v] += 1 / d;
+            }
+            //settled in order of distance, so the last one gives the eccentricity of the source
+            double eccentricity = dijkstra.distance(dijkstra.settled(dijkstra.settledCount() - 1));
+            worker.eccentricity = Math.max(worker.eccentricity, eccentricity);
+        });
+
+        double[] farness = new double[n];
+        double[] reached = new double[n];
+        double[] inverse = new double[n];
+        double eccentricity = 0;
+        for (Worker worker : workers) {
+            for (int i = 0; i < n; i++) {
+                farness[i] += worker.farness[i];
+                reached[i] += worker.reached[i];
+                inverse[i] += worker.inverse[i];
+            }
+            eccentricity = Math.max(eccentricity, worker.eccentricity);
+        }
+        double scale = (double) n / samples;
+        for (int i = 0; i < n; i++) {
+            farness[i] *= scale;
+            reached[i] *= scale;
+            inverse[i] *= scale;
+        }
+        //every distance is at most the way through a source, so the diameter is at most twice its eccentricity
+        return new ClosenessCentrality<>(snapshot, samples, farness, reached, inverse, 2 * eccentricity);
+    }
+
+    /**
+     * Searches from every source in parallel, calling action with the worker that searched it
+     * @param sums true if the workers need their own sums, which sample adds up afterwards
+     * @return all the workers
+     */
+    private static ConcurrentLinkedQueue<Worker> run(GraphSnapshot<?, Route> snapshot, int[] sources, boolean sums,
+                                                     Consumer<Worker> action) {
+        //idle workers, a task takes one or creates it and gives it back, so once every task is done all of them are here
+        ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<>();
+        if (sources.length > 0) {
+            ForkJoinPool.commonPool().invoke(new BatchTask(snapshot, sources, 0, sources.length, sums, workers, action));
+        }
+        return workers;
+    }
+
+    /**
+     * Splits a range of sources in halves until there are at most BATCH of them, which are searched one after the other
+     */
+    private static final class BatchTask extends RecursiveAction {
+        private final GraphSnapshot<?, Route> snapshot;
+        private final int[] sources;
+        private final int from;
+        private final int to;
+        private final boolean sums;
+        private final Queue<Worker> workers;
+        private final Consumer<Worker> action;
+
+        BatchTask(GraphSnapshot<?, Route> snapshot, int[] sources, int from, int to, boolean sums,
+                  Queue<Worker> workers, Consumer<Worker> action) {
+            this.snapshot = snapshot;
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.sums = sums;
+            this.workers = workers;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH) {
+                Worker worker = workers.poll();
+                if (worker == null) worker = new Worker(snapshot, sums);
+                for (int i = from; i < to; i++) {
+                    worker.source = sources[i];
+                    worker.dijkstra.run(sources[i]);
+                    action.accept(worker);
+                }
+                workers.offer(worker);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchTask(snapshot, sources, from, middle, sums, workers, action),
+                    new BatchTask(snapshot, sources, middle, to, sums, workers, action));
+        }
+    }
+
+    /**
+     * Search and sums of one batch at a time, reused for all the sources it searches.
+     * The exact centralities are written straight into the result, so only sampling workers have sums
+     */
+    private static final class Worker {
+        private final SnapshotDijkstra dijkstra;
+        private final double[] farness;
+        private final double[] reached;
+        private final double[] inverse;
+        private double eccentricity;
+        private int source;
+
+        Worker(GraphSnapshot<?, Route> snapshot, boolean sums) {
+            int n = snapshot.numVertices();
+            this.dijkstra = new SnapshotDijkstra(snapshot);
+            this.farness = sums ? new double[n] : null;
+            this.reached = sums ? new double[n] : null;
+            this.inverse = sums ? new double[n] : null;
+        }
+    }
+
+    /**
+     *
+     * @return the snapshot the centralities were calculated on
+     */
+    public GraphSnapshot<V, Route> getSnapshot() { return snapshot; }
+
+    /**
+     *
+     * @return the number of sources searched, the number of vertices if the centralities are exact
+     */
+    public int getSources() { return sources; }
+
+    /**
+     *
+     * @return true if every vertex was a source
+     */
+    public boolean isExact() { return sources == snapshot.numVertices(); }
+
+    /**
+     *
+     * @param id a vertex id of the snapshot
+     * @return its closeness, 0 if it reaches no other vertex
+     */
+    public double closeness(int id) {
+        int n = snapshot.numVertices();
+        double others = reached[id] - 1;
+        if (others <= 0 || farness[id] == 0) return 0;
+        return others * others / ((n - 1) * farness[id]);
+    }
+
+    /**
+     *
+     * @param v a vertex
+     * @return its closeness, 0 if it reaches no other vertex or wasn't in the snapshot
+     */
+    public double closeness(Vertex<V> v) {
+        int id = snapshot.id(v);
+        return id == -1 ? 0 : closeness(id);
+    }
+
+    /**
+     *
+     * @param id a vertex id of the snapshot
+     * @return its harmonic centrality
+     */
+    public double harmonic(int id) {
+        int n = snapshot.numVertices();
+        return n < 2 ? 0 : inverse[id] / (n - 1);
+    }
+
+    /**
+     *
+     * @param v a vertex
+     * @return its harmonic centrality, 0 if it wasn't in the snapshot
+     */
+    public double harmonic(Vertex<V> v) {
+        int id = snapshot.id(v);
+        return id == -1 ? 0 : harmonic(id);
+    }
+
+    /**
+     *
+     * @param id a vertex id of the snapshot
+     * @return the average distance to the other vertices it can reach, NaN if there are none
+     */
+    public double averageDistance(int id) {
+        double others = reached[id] - 1;
+        return others <= 0 ? Double.NaN : farness[id] / others;
+    }
+
+    /**
+     * Bound on the error of every harmonic centrality at once, by Hoeffding's inequality and the union bound:
+     * each source adds between 0 and 1 / (shortest route) to a vertex
+     * @param confidence probability that the bound holds, between 0 and 1
+     * @return the bound, 0 if the centralities are exact
+     */
+    public double getHarmonicError(double confidence) {
+        if (isExact() || minWeight == Integer.MAX_VALUE) return 0;
+        int n = snapshot.numVertices();
+        return hoeffding(confidence) * n / (n - 1) / minWeight;
+    }
+
+    /**
+     * Bound on the error of every average distance at once, for connected networks, by Hoeffding's inequality and
+     * the union bound: each source adds between 0 and the diameter to a vertex, and the diameter is bounded by the
+     * searches themselves
+     * @param confidence probability that the bound holds, between 0 and 1
+     * @return the bound, 0 if the centralities are exact
+     */
+    public double getDistanceError(double confidence) {
+        if (isExact()) return 0;
+        int n = snapshot.numVertices();
+        return hoeffding(confidence) * n / (n - 1) * diameterBound;
+    }
+
+    private double hoeffding(double confidence) {
+        if (confidence <= 0 || confidence >= 1) throw new IllegalArgumentException("The confidence must be between 0 and 1");
+        int n = snapshot.numVertices();
+        return Math.sqrt(Math.log(2 * n / (1 - confidence)) / (2 * sources));
+    }
+
+    /**
+     *
+     * @param k how many vertices to return
+     * @return the k vertices with the highest closeness and their closeness, highest first
+     */
+    public LinkedHashMap<Vertex<V>, Double> topCloseness(int k) {
+        double[] values = new double[snapshot.numVertices()];
+        for (int i = 0; i < values.length; i++) values[i] = closeness(i);
+        return top(values, k);
+    }
+
+    /**
+     *
+     * @param k how many vertices to return
+     * @return the k vertices with the highest harmonic centrality and their centrality, highest first
+     */
+    public LinkedHashMap<Vertex<V>, Double> topHarmonic(int k) {
+        double[] values = new double[snapshot.numVertices()];
+        for (int i = 0; i < values.length; i++) values[i] = harmonic(i);
+        return top(values, k);
+    }
+
+    private LinkedHashMap<Vertex<V>, Double> top(double[] values, int k) {
+        Integer[] ids = new Integer[values.length];
+        for (int i = 0; i < ids.length; i++) ids[i] = i;
+        Arrays.sort(ids, (a, b) -> Double.compare(values[b], values[a]));
+        LinkedHashMap<Vertex<V>, Double> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(k, ids.length); i++) top.put(snapshot.vertex(ids[i]), values[ids[i]]);
+        return top;
+    }
+
+    @Override
+    public String toString() {
+        return "ClosenessCentrality{" +
+                "vertices=" + snapshot.numVertices() +
+                ", sources=" + sources +
+                '}';
+    }
+}
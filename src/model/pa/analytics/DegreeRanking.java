@@ -0,0 +1,207 @@
+package model.pa.analytics;
+
+import java.util.*;
+import model.pa.graph.Vertex;
+
+/**
+ * Ranking of vertices by degree, kept as a bucket queue laid out in a single array.
+ * The array holds the vertices sorted by degree, highest first, and above[d] is the number of vertices with
+ * a degree greater than d, which is where the bucket of degree d starts. Raising or lowering a degree by one
+ * swaps the vertex with the first or last of its bucket and moves one boundary, so updates are O(1).
+ * The first k vertices of the array are the top k, and above[] works as prefix sums for range counts
+ * @param <V>
+ */
+public class DegreeRanking<V> {
+    private final Map<Vertex<V>, Slot<V>> slots = new HashMap<>();
+    private Slot<V>[] order;
+    private int[] above;
+    private int size;
+    private int maxDegree;
+
+    private static final class Slot<V> {
+        final Vertex<V> vertex;
+        int degree;
+        int position;
+
+        Slot(Vertex<V> vertex) {
+            this.vertex = vertex;
+        }
+    }
+
+    /**
+     * Constructor
+     */
+    @SuppressWarnings("unchecked")
+    public DegreeRanking() {
+        this.order = new Slot[16];
+        this.above = new int[16];
+    }
+
+    /**
+     * Removes every vertex
+     */
+    public void clear() {
+        slots.clear();
+        Arrays.fill(order, 0, size, null);
+        Arrays.fill(above, 0);
+        size = 0;
+        maxDegree = 0;
+    }
+
+    /**
+     * Adds a vertex with degree 0, at the end of the array where the bucket of degree 0 is
+     * @param v the vertex
+     */
+    public void add(Vertex<V> v) {
+        if (slots.containsKey(v)) throw new IllegalArgumentException("The vertex is already ranked");
+        if (size == order.length) order = Arrays.copyOf(order, size * 2);
+        Slot<V> slot = new Slot<>(v);
+        slot.position = size;
+        order[size++] = slot;
+        slots.put(v, slot);
+    }
+
+    /**
+     * Removes a vertex, its degree is lowered to 0 first
+     * @param v the vertex
+     */
+    public void remove(Vertex<V> v) {
+        Slot<V> slot = slots.get(v);
+        if (slot == null) return;
+        while (slot.degree > 0) decrement(v);
+        //the last vertex of the array has degree 0 too, so it can take the place of the removed one
+        swap(slot.position, size - 1);
+        order[--size] = null;
+        slots.remove(v);
+    }
+
+    /**
+     * Raises the degree of a vertex by one
+     * @param v the vertex
+     */
+    public void increment(Vertex<V> v) {
+        Slot<V> slot = slot(v);
+        int d = slot.degree;
+        if (d + 1 >= above.length) above = Arrays.copyOf(above, above.length * 2);
+        //to the front of its bucket, which then becomes the back of the bucket of d + 1
+        swap(slot.position, above[d]);
+        above[d]++;
+        slot.degree = d + 1;
+        maxDegree = Math.max(maxDegree, d + 1);
+    }
+
+    /**
+     * Lowers the degree of a vertex by one
+     * @param v the vertex
+     */
+    public void decrement(Vertex<V> v) {
+        Slot<V> slot = slot(v);
+        int d = slot.degree;
+        if (d == 0) throw new IllegalStateException("The degree is already 0");
+        //to the back of its bucket, which then becomes the front of the bucket of d - 1
+        swap(slot.position, above[d - 1] - 1);
+        above[d - 1]--;
+        slot.degree = d - 1;
+        while (maxDegree > 0 && above[maxDegree - 1] == 0) maxDegree--;
+    }
+
+    private Slot<V> slot(Vertex<V> v) {
+        Slot<V> slot = slots.get(v);
+        if (slot == null) throw new IllegalArgumentException("The vertex is not ranked");
+        return slot;
+    }
+
+    private void swap(int i, int j) {
+        if (i == j) return;
+        Slot<V> a = order[i];
+        Slot<V> b = order[j];
+        order[i] = b;
+        order[j] = a;
+        a.position = j;
+        b.position = i;
+    }
+
+    /**
+     *
+     * @param v a vertex
+     * @return its degree
+     */
+    public int degree(Vertex<V> v) {
+        return slot(v).degree;
+    }
+
+    /**
+     *
+     * @return the number of vertices
+     */
+    public int size() { return size; }
+
+    /**
+     *
+     * @return the highest degree, 0 if there are no vertices
+     */
+    public int getMaxDegree() { return maxDegree; }
+
+    /**
+     *
+     * @param k how many vertices to return
+     * @return the k vertices with the highest degree, highest first, in O(k)
+     */
+    public List<Vertex<V>> top(int k) {
+        int count = Math.min(k, size);
+        List<Vertex<V>> top = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) top.add(order[i].vertex);
+        return top;
+    }
+
+    /**
+     *
+     * @param degree a degree
+     * @return the number of vertices with a greater degree, in O(1)
+     */
+    public int countAbove(int degree) {
+        if (degree < 0) return size;
+        return degree >= above.length ? 0 : above[degree];
+    }
+
+    /**
+     * Counts the vertices with a degree in a range, in O(1)
+     * @param start minimum degree
+     * @param end maximum degree
+     * @return the number of vertices
+     */
+    public int countBetween(int start, int end) {
+        if (start > end) return 0;
+        return countAbove(start - 1) - countAbove(end);
+    }
+
+    /**
+     *
+     * @param degree a degree
+     * @return the percentage of the vertices with that degree or less
+     */
+    public float percentile(int degree) {
+        return (float) (size - countAbove(degree)) / size * 100;
+    }
+
+    /**
+     *
+     * @return how many vertices have each degree, for the degrees that some vertex has
+     */
+    public SortedMap<Integer, Integer> histogram() {
+        SortedMap<Integer, Integer> histogram = new TreeMap<>();
+        for (int d = 0; d <= maxDegree; d++) {
+            int count = countBetween(d, d);
+            if (count > 0) histogram.put(d, count);
+        }
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        return "DegreeRanking{" +
+                "size=" + size +
+                ", maxDegree=" + maxDegree +
+                '}';
+    }
+}
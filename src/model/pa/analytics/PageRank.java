@@ -0,0 +1,220 @@
+package model.pa.analytics;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import model.pa.graph.Graph;
+import model.pa.graph.GraphSnapshot;
+import model.pa.graph.Vertex;
+import model.pa.model.Route;
+
+/**
+ * Weighted PageRank of every vertex: a traveller leaves each airport by one of its routes with probability
+ * proportional to the route weight, or with probability 1 - damping (or when the airport has no routes) jumps to any
+ * airport. The weights are the route distances or their inverses.
+ * The power iteration works on primitive arrays built from a GraphSnapshot. Every vertex pulls the rank of its
+ * neighbours, so the vertices are updated in parallel without sharing writes, and it stops once the L1 distance
+ * between two iterations is below the tolerance.
+ * It can start from a previous ranking instead of the uniform one, which after a few route edits is already close
+ * to the new ranking and takes far fewer iterations
+ * @param <V>
+ */
+public class PageRank<V> {
+    public static final double DEFAULT_DAMPING = 0.85;
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+    public static final int DEFAULT_MAX_ITERATIONS = 1000;
+
+    /**
+     * What a route weighs when choosing how to leave an airport
+     */
+    public enum Weighting {
+        //longer routes are taken more often
+        DISTANCE,
+        //shorter routes are taken more often
+        INVERSE_DISTANCE;
+
+        double weight(int distance) {
+            return this == DISTANCE ? distance : 1.0 / Math.max(distance, 1);
+        }
+    }
+
+    private final GraphSnapshot<V, Route> snapshot;
+    private final Weighting weighting;
+    private final double[] ranks;
+    private final int iterations;
+    private final double residual;
+
+    private PageRank(GraphSnapshot<V, Route> snapshot, Weighting weighting, double[] ranks, int iterations, double residual) {
+        this.snapshot = snapshot;
+        this.weighting = weighting;
+        this.ranks = ranks;
+        this.iterations = iterations;
+        this.residual = residual;
+    }
+
+    /**
+     * Ranks the vertices of a graph with the default damping and tolerance
+     * @param network the graph
+     * @param weighting weight of the routes
+     * @return the ranking
+     */
+    public static <V> PageRank<V> compute(Graph<V, Route> network, Weighting weighting) {
+        return compute(GraphSnapshot.of(network, Route::getDistance), weighting, null);
+    }
+
+    /**
+     * Ranks the vertices of a snapshot with the default damping and tolerance
+     * @param snapshot the graph
+     * @param weighting weight of the routes
+     * @param previous ranking to start from, usually of an earlier version of the graph, or null to start from the uniform one
+     * @return the ranking
+     */
+    public static <V> PageRank<V> compute(GraphSnapshot<V, Route> snapshot, Weighting weighting, PageRank<V> previous) {
+        return compute(snapshot, weighting, previous, DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Ranks the vertices of a snapshot
+     * @param snapshot the graph
+     * @param weighting weight of the routes
+     * @param previous ranking to start from, usually of an earlier version of the graph, or null to start from the uniform one
+     * @param damping probability of following a route instead of jumping, between 0 and 1
+     * @param tolerance L1 distance between two iterations under which the ranking has converged
+     * @param maxIterations iterations after which it stops even if it hasn't converged
+     * @return the ranking
+     */
+    public static <V> PageRank<V> compute(GraphSnapshot<V, Route> snapshot, Weighting weighting, PageRank<V> previous,
+                                          double damping, double tolerance, int maxIterations) {
+        if (damping < 0 || damping > 1) throw new IllegalArgumentException("The damping must be between 0 and 1");
+        int n = snapshot.numVertices();
+        if (n == 0) return new PageRank<>(snapshot, weighting, new double[0], 0, 0);
+
+        //weight of every edge slot and total weight leaving every vertex
+        int slots = snapshot.offset(n);
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[slots];
+        double[] weights = new double[slots];
+        double[] outWeight = new double[n];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = snapshot.offset(v + 1);
+            for (int slot = snapshot.offset(v); slot < snapshot.offset(v + 1); slot++) {
+                targets[slot] = snapshot.target(slot);
+                weights[slot] = weighting.weight(snapshot.weight(slot));
+                outWeight[v] += weights[slot];
+            }
+        }
+
+        double[] rank = start(snapshot, previous);
+        double[] next = new double[n];
+        double[] share = new double[n];
+        int iterations = 0;
+        double residual = Double.MAX_VALUE;
+        while (iterations < maxIterations && residual > tolerance) {
+            double[] current = rank;
+            double[] updated = next;
+            //rank each vertex sends along every unit of weight, and the rank of vertices with nowhere to go
+            double dangling = IntStream.range(0, n).parallel().mapToDouble(v -> {
+                if (outWeight[v] > 0) {
+                    share[v] = current[v] / outWeight[v];
+                    return 0;
+                }
+                share[v] = 0;
+                return current[v];
+            }).sum();
+            double base = (1 - damping + damping * dangling) / n;
+            residual = IntStream.range(0, n).parallel().mapToDouble(v -> {
+                double sum = 0;
+                for (int slot = offsets[v]; slot < offsets[v + 1]; slot++) sum += share[targets[slot]] * weights[slot];
+                updated[v] = base + damping * sum;
+                return Math.abs(updated[v] - current[v]);
+            }).sum();
+            rank = updated;
+            next = current;
+            iterations++;
+        }
+        return new PageRank<>(snapshot, weighting, rank, iterations, residual);
+    }
+
+    private static <V> double[] start(GraphSnapshot<V, Route> snapshot, PageRank<V> previous) {
+        int n = snapshot.numVertices();
+        double[] rank = new double[n];
+        double sum = 0;
+        if (previous != null) {
+            //vertices that are new get the average rank, and the whole is scaled back to 1
+            for (int v = 0; v < n; v++) {
+                int old = previous.snapshot.id(snapshot.vertex(v));
+                rank[v] = old == -1 ? 1.0 / n : previous.ranks[old];
+                sum += rank[v];
+            }
+        }
+        if (sum <= 0) {
+            Arrays.fill(rank, 1.0 / n);
+            return rank;
+        }
+        for (int v = 0; v < n; v++) rank[v] /= sum;
+        return rank;
+    }
+
+    /**
+     *
+     * @return the snapshot the ranking was calculated on
+     */
+    public GraphSnapshot<V, Route> getSnapshot() { return snapshot; }
+
+    /**
+     *
+     * @return the weight the routes had
+     */
+    public Weighting getWeighting() { return weighting; }
+
+    /**
+     *
+     * @return the number of iterations it took
+     */
+    public int getIterations() { return iterations; }
+
+    /**
+     *
+     * @return the L1 distance between the last two iterations
+     */
+    public double getResidual() { return residual; }
+
+    /**
+     *
+     * @param id a vertex id of the snapshot
+     * @return its rank, the ranks of all the vertices add up to 1
+     */
+    public double score(int id) { return ranks[id]; }
+
+    /**
+     *
+     * @param v a vertex
+     * @return its rank, or 0 if it wasn't in the snapshot
+     */
+    public double score(Vertex<V> v) {
+        int id = snapshot.id(v);
+        return id == -1 ? 0 : ranks[id];
+    }
+
+    /**
+     *
+     * @param k how many vertices to return
+     * @return the k vertices with the highest rank and their ranks, highest first
+     */
+    public LinkedHashMap<Vertex<V>, Double> top(int k) {
+        Integer[] ids = new Integer[ranks.length];
+        for (int i = 0; i < ids.length; i++) ids[i] = i;
+        Arrays.sort(ids, (a, b) -> Double.compare(ranks[b], ranks[a]));
+        LinkedHashMap<Vertex<V>, Double> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(k, ids.length); i++) top.put(snapshot.vertex(ids[i]), ranks[ids[i]]);
+        return top;
+    }
+
+    @Override
+    public String toString() {
+        return "PageRank{" +
+                "vertices=" + ranks.length +
+                ", weighting=" + weighting +
+                ", iterations=" + iterations +
+                '}';
+    }
+}
@@ -13,8 +13,12 @@ import javax.xml.crypto.Data;
 import java.io.*;
 import java.text.NumberFormat;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class represents the data set loader
@@ -124,7 +128,7 @@ public class DatasetLoader extends Subject {
      */
     public Graph<Airport, Route> createGraph(Dataset dataset, Graph<Airport, Route> network) {
 
-        for (Edge<Route, Airport> edge : network.edges()) {
+        for (Edge<Route, Airport> edge : new ArrayList<>(network.edges())) {
             network.removeEdge(edge);
         }
 
@@ -132,18 +136,32 @@ public class DatasetLoader extends Subject {
             network.removeVertex(vertex);
         }
 
-        //insert airports
-        for (int i = 0; i < dataset.getCity().size(); i++) {
-           network.insertVertex(new Airport(dataset.getCity().get(i), dataset.getIata().get(i), dataset.getLat().get(i), dataset.getLongitude().get(i), dataset.getAlt().get(i), dataset.getX().get(i), dataset.getY().get(i)));
+        //insert airports, indexed by IATA code for the routes
+        Map<String, Airport> byIata = new HashMap<>();
+        Iterator<String> city = dataset.getCity().iterator();
+        Iterator<String> iata = dataset.getIata().iterator();
+        Iterator<Double> lat = dataset.getLat().iterator();
+        Iterator<Double> longitude = dataset.getLongitude().iterator();
+        Iterator<Integer> alt = dataset.getAlt().iterator();
+        Iterator<Integer> x = dataset.getX().iterator();
+        Iterator<Integer> y = dataset.getY().iterator();
+        while (city.hasNext()) {
+           Airport airport = new Airport(city.next(), iata.next(), lat.next(), longitude.next(), alt.next(), x.next(), y.next());
+           network.insertVertex(airport);
+           byIata.putIfAbsent(airport.getAbreviation(), airport);
            notifyObservers(null);
         }
 
         //insert routes
-        for (int i = 0; i < dataset.getStart().size(); i++) {
-            Airport start = findAirport(network, dataset.getStart().get(i));
-            Airport dest = findAirport(network, dataset.getDestination().get(i));
+        Iterator<String> starts = dataset.getStart().iterator();
+        Iterator<String> destinations = dataset.getDestination().iterator();
+        Iterator<Integer> distances = dataset.getDistance().iterator();
+        while (starts.hasNext()) {
+            Airport start = byIata.get(starts.next());
+            Airport dest = byIata.get(destinations.next());
+            int distance = distances.next();
             try {
-                network.insertEdge(start, dest, new Route(start, dest, dataset.getDistance().get(i)));
+                network.insertEdge(start, dest, new Route(start, dest, distance));
                 notifyObservers(null);
             }catch (Exception e) {
                 //e.printStackTrace();
@@ -154,19 +172,6 @@ public class DatasetLoader extends Subject {
         return network;
     }
 
-    /**
-     * Finds an airport in the graph
-     * @param graph
-     * @param s name of the airport
-     * @return the airport
-     */
-    private Airport findAirport(Graph<Airport, Route> graph, String s) {
-        for (Vertex<Airport> vertex : graph.vertices()) {
-            if (vertex.element().compareTo(new Airport("", s, 0, 0, 0)) == 0) return vertex.element();
-        }
-        return null;
-    }
-
     /**
      * Exports the routes
      * @param directory path where the file will be saved
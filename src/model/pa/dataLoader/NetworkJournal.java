@@ -0,0 +1,429 @@
+package model.pa.dataLoader;
+
+import model.pa.graph.Edge;
+import model.pa.graph.Graph;
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import model.pa.model.AirportNetworkException;
+import model.pa.model.Route;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal of the edits of an AirportNetwork, so that a crash doesn't lose them.
+ * Recording an edit only encodes it and queues it, a writer thread takes everything queued at once,
+ * writes it with one FileChannel write and makes it durable with one force (group commit).
+ * Every record is framed by its length and a CRC32, so a record torn by a crash is detected and dropped on replay.
+ * compact() replaces the records with a snapshot of the network, the new file is written aside and moved over the old one
+ */
+public class NetworkJournal implements Closeable {
+    /** Number of records after which needsCompaction() is true, when none is given */
+    public static final int DEFAULT_COMPACT_EVERY = 10_000;
+
+    private static final int MAGIC = 0x414E4A31; //ANJ1
+    private static final byte RESET = 0;
+    private static final byte ADD_AIRPORT = 1;
+    private static final byte REMOVE_AIRPORT = 2;
+    private static final byte ADD_ROUTE = 3;
+    private static final byte REMOVE_ROUTE = 4;
+
+    private final Path file;
+    private final int compactEvery;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private FileChannel channel;
+    private int recordsSinceSnapshot;
+    private volatile IOException failure;
+    private volatile long commits;
+
+    /**
+     * Opens the journal, creating the file if it doesn't exist
+     * @param file path of the journal
+     * @throws IOException if the file can't be opened or isn't a journal
+     */
+    public NetworkJournal(Path file) throws IOException {
+        this(file, DEFAULT_COMPACT_EVERY);
+    }
+
+    /**
+     * Opens the journal, creating the file if it doesn't exist
+     * @param file path of the journal
+     * @param compactEvery number of records after which needsCompaction() is true
+     * @throws IOException if the file can't be opened or isn't a journal
+     */
+    public NetworkJournal(Path file, int compactEvery) throws IOException {
+        if (compactEvery < 1) throw new IllegalArgumentException("compactEvery must be positive");
+        this.file = file;
+        this.compactEvery = compactEvery;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(4).putInt(MAGIC);
+            header.flip();
+            while (header.hasRemaining()) channel.write(header);
+            channel.force(true);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < 4 || header.getInt() != MAGIC) {
+                channel.close();
+                throw new IOException(String.format("%s is not a network journal.", file));
+            }
+        }
+        channel.position(channel.size());
+        this.writer = new Thread(this::writeLoop, "network-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Applies the records of the journal to a network, it must be called before anything is recorded.
+     * A torn or corrupt record, or one that can't be applied to the network, ends the replay and is cut from the file
+     * together with everything after it, the network keeps the records before it
+     * @param network the network, usually empty
+     * @return true if there was anything to replay
+     * @throws IOException if the file can't be read
+     */
+    public boolean replay(AirportNetwork network) throws IOException {
+        long position = 4;
+        int replayed = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            in.skipBytes(4);
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] record;
+                try {
+                    int length = in.readInt();
+                    if (length < 1 || length > (1 << 24)) break;
+                    record = new byte[length];
+                    in.readFully(record);
+                    crc.reset();
+                    crc.update(record, 0, length);
+                    if (in.readInt() != (int) crc.getValue()) break;
+                } catch (EOFException e) {
+                    break;
+                }
+                try {
+                    apply(network, new DataInputStream(new ByteArrayInputStream(record)));
+                } catch (IOException | RuntimeException e) {
+                    //an intact record that can't be applied is as unusable as a torn one
+                    break;
+                }
+                position += 8 + record.length;
+                replayed++;
+            }
+        }
+        channel.truncate(position);
+        channel.position(position);
+        recordsSinceSnapshot = replayed;
+        return replayed > 0;
+    }
+
+    private void apply(AirportNetwork network, DataInputStream in) throws IOException {
+        switch (in.readByte()) {
+            case RESET:
+                network.reset();
+                network.setFolder(in.readUTF());
+                break;
+            case ADD_AIRPORT:
+                String name = in.readUTF();
+                String iata = in.readUTF();
+                boolean coordinates = in.readBoolean();
+                double latitude = in.readDouble();
+                double longitude = in.readDouble();
+                int altitude = in.readInt();
+                int x = in.readInt();
+                int y = in.readInt();
+                network.addAirport(coordinates
+                        ? new Airport(name, iata, latitude, longitude, altitude, x, y)
+                        : new Airport(name, iata, x, y));
+                break;
+            case REMOVE_AIRPORT:
+                network.removeAirport(in.readUTF());
+                break;
+            case ADD_ROUTE:
+                network.addRoute(in.readUTF(), in.readUTF(), in.readInt());
+                break;
+            case REMOVE_ROUTE:
+                network.removeRoute(in.readUTF(), in.readUTF());
+                break;
+            default:
+                throw new IOException("Unknown journal record.");
+        }
+    }
+
+    /**
+     * Records that an airport was added
+     * @param airport the airport
+     */
+    public void airportAdded(Airport airport) {
+        enqueue(encodeAirport(airport));
+    }
+
+    /**
+     * Records that an airport was removed, with its routes
+     * @param name name of the airport
+     */
+    public void airportRemoved(String name) {
+        enqueue(encode(REMOVE_AIRPORT, name, null, 0));
+    }
+
+    /**
+     * Records that a route was added
+     * @param origin name of the origin airport
+     * @param destination name of the destination airport
+     * @param distance distance of the route
+     */
+    public void routeAdded(String origin, String destination, int distance) {
+        enqueue(encode(ADD_ROUTE, origin, destination, distance));
+    }
+
+    /**
+     * Records that a route was removed
+     * @param origin name of one airport of the route
+     * @param destination name of the other airport
+     */
+    public void routeRemoved(String origin, String destination) {
+        enqueue(encode(REMOVE_ROUTE, origin, destination, 0));
+    }
+
+    /**
+     *
+     * @return true when enough records were written since the last snapshot to make compaction worth it
+     */
+    public boolean needsCompaction() {
+        return recordsSinceSnapshot >= compactEvery;
+    }
+
+    /**
+     * Replaces every record with a snapshot of the network. Used after loads and restores, which change everything,
+     * and when needsCompaction() says so. The graph is encoded by the writer thread, so it must not change afterwards
+     * @param graph a copy of the network that nobody edits
+     * @param folder folder of the dataset the network came from
+     */
+    public void compact(Graph<Airport, Route> graph, String folder) {
+        recordsSinceSnapshot = 0;
+        queue.add(new Snapshot(graph, folder));
+    }
+
+    /**
+     * Waits until everything recorded so far is on disk
+     * @throws AirportNetworkException if the journal couldn't be written
+     */
+    public void flush() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        queue.add(done);
+        await(done);
+    }
+
+    /**
+     * Flushes the journal and stops the writer thread
+     */
+    @Override
+    public void close() {
+        if (!writer.isAlive()) return;
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        queue.add(new Closing(done));
+        await(done);
+    }
+
+    /**
+     *
+     * @return how many group commits were forced to disk
+     */
+    public long getCommits() { return commits; }
+
+    private void await(CompletableFuture<Void> done) {
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new AirportNetworkException("The journal could not be written: " + e.getCause().getMessage());
+        }
+    }
+
+    private void enqueue(byte[] record) {
+        recordsSinceSnapshot++;
+        queue.add(record);
+    }
+
+    private static byte[] encodeAirport(Airport airport) {
+        return frame(out -> {
+            out.writeByte(ADD_AIRPORT);
+            out.writeUTF(airport.getName());
+            out.writeUTF(airport.getAbreviation());
+            out.writeBoolean(airport.hasCoordinates());
+            out.writeDouble(airport.getLatitude());
+            out.writeDouble(airport.getLongitude());
+            out.writeInt(airport.getAltitude());
+            out.writeInt(airport.getX());
+            out.writeInt(airport.getY());
+        });
+    }
+
+    private static byte[] encode(byte type, String name1, String name2, int distance) {
+        return frame(out -> {
+            out.writeByte(type);
+            if (name1 != null) out.writeUTF(name1);
+            if (name2 != null) out.writeUTF(name2);
+            if (type == ADD_ROUTE) out.writeInt(distance);
+        });
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Encodes a record as its length, its bytes and their CRC32
+     */
+    private static byte[] frame(RecordWriter body) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            body.write(new DataOutputStream(bytes));
+            byte[] record = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(record, 0, record.length);
+            ByteBuffer framed = ByteBuffer.allocate(record.length + 8);
+            framed.putInt(record.length).put(record).putInt((int) crc.getValue());
+            return framed.array();
+        } catch (IOException e) {
+            //writing to memory doesn't fail
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Snapshot {
+        final Graph<Airport, Route> graph;
+        final String folder;
+
+        Snapshot(Graph<Airport, Route> graph, String folder) {
+            this.graph = graph;
+            this.folder = folder;
+        }
+    }
+
+    private static final class Closing {
+        final CompletableFuture<Void> done;
+
+        Closing(CompletableFuture<Void> done) {
+            this.done = done;
+        }
+    }
+
+    private void writeLoop() {
+        List<Object> batch = new ArrayList<>();
+        List<byte[]> pending = new ArrayList<>();
+        List<CompletableFuture<Void>> waiting = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            Closing closing = null;
+            for (Object item : batch) {
+                if (item instanceof byte[]) {
+                    pending.add((byte[]) item);
+                } else if (item instanceof Snapshot) {
+                    //the snapshot already has the effect of the records before it
+                    pending.clear();
+                    try {
+                        if (failure == null) writeSnapshot((Snapshot) item);
+                    } catch (IOException e) {
+                        failed(e);
+                    }
+                } else if (item instanceof Closing) {
+                    closing = (Closing) item;
+                    waiting.add(closing.done);
+                } else {
+                    waiting.add(toFuture(item));
+                }
+            }
+            batch.clear();
+            try {
+                if (failure == null && !pending.isEmpty()) append(pending);
+            } catch (IOException e) {
+                failed(e);
+            }
+            pending.clear();
+            if (closing != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    failed(e);
+                }
+            }
+            for (CompletableFuture<Void> done : waiting) {
+                if (failure == null) done.complete(null);
+                else done.completeExceptionally(failure);
+            }
+            waiting.clear();
+            if (closing != null) return;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<Void> toFuture(Object item) {
+        return (CompletableFuture<Void>) item;
+    }
+
+    private void failed(IOException e) {
+        if (failure == null) failure = e;
+        e.printStackTrace();
+    }
+
+    private void append(List<byte[]> records) throws IOException {
+        int size = 0;
+        for (byte[] record : records) size += record.length;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] record : records) buffer.put(record);
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        channel.force(false);
+        commits++;
+    }
+
+    /**
+     * Writes a journal that rebuilds the graph next to the current one and moves it over it
+     */
+    private void writeSnapshot(Snapshot snapshot) throws IOException {
+        Graph<Airport, Route> graph = snapshot.graph;
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(out), 1 << 16));
+            data.writeInt(MAGIC);
+            data.write(encode(RESET, snapshot.folder, null, 0));
+            for (Vertex<Airport> v : graph.vertices()) data.write(encodeAirport(v.element()));
+            for (Edge<Route, Airport> e : graph.edges()) {
+                Route route = e.element();
+                data.write(encode(ADD_ROUTE, route.getOrigin().getName(), route.getDestination().getName(), route.getDistance()));
+            }
+            data.flush();
+            out.force(true);
+        }
+        channel.close();
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        commits++;
+    }
+}
@@ -0,0 +1,186 @@
+package model.pa.dataLoader;
+
+import model.pa.graph.Edge;
+import model.pa.graph.Graph;
+import model.pa.graph.InvalidEdgeException;
+import model.pa.graph.InvalidVertexException;
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.Route;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Compact binary file with a whole network, much faster to load than the text dataset.
+ * After a header with the counts it holds a string table (the offsets of every string followed by their UTF-8 bytes),
+ * the airports as columns (name, IATA, coordinates, altitude, x and y) and the routes as
+ * (origin, destination, distance) triples indexed by airport position.
+ * It is written with one FileChannel write and read through a memory mapping, without parsing
+ */
+public final class NetworkSnapshotFile {
+    private static final int MAGIC = 0x414E5331; //ANS1
+    private static final int VERSION = 1;
+    private static final int HEADER = 6 * Integer.BYTES;
+
+    private NetworkSnapshotFile() {
+    }
+
+    /**
+     * Writes a network to a file, replacing it if it exists
+     * @param file path of the file
+     * @param network the network
+     * @param folder folder of the dataset the network came from, kept for its images
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Path file, Graph<Airport, Route> network, String folder) throws IOException {
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        Map<Airport, Integer> airportIds = new HashMap<>();
+        List<Airport> airports = new ArrayList<>(network.numVertices());
+        for (Vertex<Airport> v : network.vertices()) {
+            airportIds.put(v.element(), airports.size());
+            airports.add(v.element());
+        }
+        List<Route> routes = new ArrayList<>(network.numEdges());
+        for (Edge<Route, Airport> e : network.edges()) routes.add(e.element());
+
+        int folderId = intern(folder, stringIds, strings);
+        int n = airports.size();
+        int[] names = new int[n];
+        int[] iatas = new int[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = intern(airports.get(i).getName(), stringIds, strings);
+            iatas[i] = intern(airports.get(i).getAbreviation(), stringIds, strings);
+        }
+        int blob = 0;
+        for (byte[] s : strings) blob += s.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size(strings.size(), blob, n, routes.size()));
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(strings.size()).putInt(n).putInt(routes.size()).putInt(folderId);
+        int offset = 0;
+        for (byte[] s : strings) {
+            buffer.putInt(offset);
+            offset += s.length;
+        }
+        buffer.putInt(offset);
+        for (byte[] s : strings) buffer.put(s);
+        for (int i = 0; i < n; i++) buffer.putInt(names[i]);
+        for (int i = 0; i < n; i++) buffer.putInt(iatas[i]);
+        for (Airport a : airports) buffer.put((byte) (a.hasCoordinates() ? 1 : 0));
+        for (Airport a : airports) buffer.putDouble(a.getLatitude());
+        for (Airport a : airports) buffer.putDouble(a.getLongitude());
+        for (Airport a : airports) buffer.putInt(a.getAltitude());
+        for (Airport a : airports) buffer.putInt(a.getX());
+        for (Airport a : airports) buffer.putInt(a.getY());
+        for (Route r : routes) buffer.putInt(airportIds.get(r.getOrigin()));
+        for (Route r : routes) buffer.putInt(airportIds.get(r.getDestination()));
+        for (Route r : routes) buffer.putInt(r.getDistance());
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+    }
+
+    private static int intern(String s, Map<String, Integer> ids, List<byte[]> strings) {
+        Integer id = ids.get(s);
+        if (id != null) return id;
+        ids.put(s, strings.size());
+        strings.add(s.getBytes(StandardCharsets.UTF_8));
+        return strings.size() - 1;
+    }
+
+    private static long size(int strings, int blob, int airports, int routes) {
+        return HEADER + (long) (strings + 1) * Integer.BYTES + blob
+                + (long) airports * (5 * Integer.BYTES + 1 + 2 * Double.BYTES)
+                + (long) routes * 3 * Integer.BYTES;
+    }
+
+    /**
+     * Reads a network from a file into a graph, which should be empty
+     * @param file path of the file
+     * @param network the graph to fill
+     * @return the folder of the dataset the network came from
+     * @throws IOException if the file can't be read or isn't a network snapshot
+     */
+    public static String read(Path file, Graph<Airport, Route> network) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER) throw new IOException(String.format("%s is not a network snapshot.", file));
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException(String.format("%s is not a network snapshot.", file));
+            }
+            int stringCount = buffer.getInt();
+            int n = buffer.getInt();
+            int m = buffer.getInt();
+            int folderId = buffer.getInt();
+            if (stringCount < 0 || n < 0 || m < 0 || length < size(stringCount, 0, n, m)) {
+                throw new IOException(String.format("%s is truncated.", file));
+            }
+            int[] offsets = ints(buffer, stringCount + 1);
+            if (offsets[stringCount] < 0 || length != size(stringCount, offsets[stringCount], n, m)) {
+                throw new IOException(String.format("%s is truncated.", file));
+            }
+            byte[] blob = new byte[offsets[stringCount]];
+            buffer.get(blob);
+            String[] strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                strings[i] = new String(blob, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+            }
+
+            int[] names = ints(buffer, n);
+            int[] iatas = ints(buffer, n);
+            byte[] coordinates = new byte[n];
+            buffer.get(coordinates);
+            double[] latitudes = doubles(buffer, n);
+            double[] longitudes = doubles(buffer, n);
+            int[] altitudes = ints(buffer, n);
+            int[] xs = ints(buffer, n);
+            int[] ys = ints(buffer, n);
+            List<Vertex<Airport>> airports = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Airport a = coordinates[i] != 0
+                        ? new Airport(strings[names[i]], strings[iatas[i]], latitudes[i], longitudes[i], altitudes[i], xs[i], ys[i])
+                        : new Airport(strings[names[i]], strings[iatas[i]], xs[i], ys[i]);
+                airports.add(network.insertVertex(a));
+            }
+
+            int[] origins = ints(buffer, m);
+            int[] destinations = ints(buffer, m);
+            int[] distances = ints(buffer, m);
+            for (int i = 0; i < m; i++) {
+                Vertex<Airport> origin = airports.get(origins[i]);
+                Vertex<Airport> destination = airports.get(destinations[i]);
+                network.insertEdge(origin, destination, new Route(origin.element(), destination.element(), distances[i]));
+            }
+            return strings[folderId];
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | InvalidVertexException | InvalidEdgeException e) {
+            throw new IOException(String.format("%s is corrupt.", file));
+        }
+    }
+
+    private static int[] ints(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static double[] doubles(ByteBuffer buffer, int count) {
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + count * Double.BYTES);
+        return values;
+    }
+}
@@ -0,0 +1,173 @@
+package model.pa.dataLoader;
+
+import model.pa.graph.Edge;
+import model.pa.graph.Graph;
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.Route;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads a dataset in a single pass, without the intermediate lists of DatasetLoader.
+ * name.txt, xy.txt and weight.txt are read in lockstep, one line of each per airport, and every airport is inserted
+ * as soon as its three lines are read. The routes file is then streamed straight into the graph.
+ * Lines are split by a TabTokenizer, so memory is bounded by the graph and an index of the airports by IATA code.
+ * Like DatasetLoader, routes to unknown airports and repeated routes are skipped
+ */
+public class StreamingDatasetLoader {
+    private final String folderpath, route;
+    private int skippedRoutes;
+
+    /**
+     *
+     * @param folderpath path of the folder dataset
+     * @param route routes file name
+     */
+    public StreamingDatasetLoader(String folderpath, String route) {
+        this.folderpath = folderpath;
+        this.route = route;
+    }
+
+    /**
+     * Reader of the lines with data of a file, which skips comments and empty lines
+     */
+    private static final class DataLines implements Closeable {
+        private final String path;
+        private final BufferedReader reader;
+        private int number;
+
+        DataLines(String path) throws FileNotFoundException {
+            this.path = path;
+            try {
+                this.reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new FileNotFoundException(String.format("The file %s does not seem to exist.", path));
+            }
+        }
+
+        /**
+         *
+         * @return the next line with data, or null at the end of the file
+         */
+        String next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (!line.trim().isEmpty() && line.charAt(0) != '#') return line;
+            }
+            return null;
+        }
+
+        IOException error(String message) {
+            return new IOException(String.format("%s, line %d: %s", path, number, message));
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Replaces the contents of a graph with the dataset
+     * @param network the graph
+     * @return the graph
+     * @throws FileNotFoundException if one of the files is not found
+     * @throws IOException if the files can't be read or are malformed
+     */
+    public Graph<Airport, Route> load(Graph<Airport, Route> network) throws IOException {
+        return load(network, new HashMap<>());
+    }
+
+    /**
+     * Replaces the contents of a graph with the dataset, filling an index of the airports by IATA code
+     * that is also used to resolve the routes
+     * @param network the graph
+     * @param byIata empty map where the airports are indexed, the first airport with a code keeps it
+     * @return the graph
+     * @throws FileNotFoundException if one of the files is not found
+     * @throws IOException if the files can't be read or are malformed
+     */
+    public Graph<Airport, Route> load(Graph<Airport, Route> network, Map<String, Vertex<Airport>> byIata) throws IOException {
+        TabTokenizer tokens = new TabTokenizer();
+        //every file is opened before the graph is cleared, so a wrong folder leaves it as it was
+        try (DataLines names = new DataLines(folderpath + "\\name.txt");
+             DataLines xy = new DataLines(folderpath + "\\xy.txt");
+             DataLines weight = new DataLines(folderpath + "\\weight.txt");
+             DataLines routes = new DataLines(folderpath + "\\" + route)) {
+            for (Edge<Route, Airport> edge : new ArrayList<>(network.edges())) network.removeEdge(edge);
+            for (Vertex<Airport> vertex : new ArrayList<>(network.vertices())) network.removeVertex(vertex);
+            skippedRoutes = 0;
+
+            while (true) {
+                String nameLine = names.next();
+                String xyLine = xy.next();
+                String weightLine = weight.next();
+                if (nameLine == null || xyLine == null || weightLine == null) {
+                    if (nameLine != null || xyLine != null || weightLine != null) {
+                        throw new IOException("name.txt, xy.txt and weight.txt don't have the same number of airports.");
+                    }
+                    break;
+                }
+                String iata, city;
+                int x, y, altitude;
+                double latitude, longitude;
+                DataLines current = names;
+                try {
+                    tokens.reset(nameLine);
+                    iata = tokens.nextString();
+                    city = tokens.nextString();
+                    current = xy;
+                    tokens.reset(xyLine);
+                    x = tokens.nextInt();
+                    y = tokens.nextInt();
+                    current = weight;
+                    tokens.reset(weightLine);
+                    tokens.skip();
+                    latitude = tokens.nextDouble();
+                    longitude = tokens.nextDouble();
+                    altitude = tokens.nextInt();
+                } catch (NumberFormatException e) {
+                    throw current.error(e.getMessage());
+                }
+                Airport airport = new Airport(city, iata, latitude, longitude, altitude, x, y);
+                byIata.putIfAbsent(iata, network.insertVertex(airport));
+            }
+
+            String line;
+            while ((line = routes.next()) != null) {
+                String from, to;
+                int distance;
+                try {
+                    tokens.reset(line);
+                    from = tokens.nextString();
+                    distance = tokens.nextInt();
+                    to = tokens.nextString();
+                } catch (NumberFormatException e) {
+                    throw routes.error(e.getMessage());
+                }
+                Vertex<Airport> origin = byIata.get(from);
+                Vertex<Airport> destination = byIata.get(to);
+                if (origin == null || destination == null || network.areAdjacent(origin, destination)) {
+                    skippedRoutes++;
+                    continue;
+                }
+                network.insertEdge(origin, destination, new Route(origin.element(), destination.element(), distance));
+            }
+        }
+        return network;
+    }
+
+    /**
+     *
+     * @return how many routes of the last load were skipped, for naming unknown airports or being repeated
+     */
+    public int getSkippedRoutes() { return skippedRoutes; }
+}
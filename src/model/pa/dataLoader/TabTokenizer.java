@@ -0,0 +1,137 @@
+package model.pa.dataLoader;
+
+/**
+ * Splits a line of a dataset file into its tab separated fields, without String.split or NumberFormat.
+ * Numbers are parsed straight from the characters of the line, decimals may use a comma or a point
+ */
+final class TabTokenizer {
+    private static final double[] POWERS_OF_TEN = new double[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    private String line;
+    private int position;
+    private int end;
+
+    /**
+     * Starts tokenizing a new line, ignoring its leading and trailing whitespace
+     * @param line the line
+     */
+    void reset(String line) {
+        this.line = line;
+        int start = 0;
+        int stop = line.length();
+        while (start < stop && Character.isWhitespace(line.charAt(start))) start++;
+        while (stop > start && Character.isWhitespace(line.charAt(stop - 1))) stop--;
+        this.position = start;
+        this.end = stop;
+    }
+
+    /**
+     *
+     * @return true if there are fields left
+     */
+    boolean hasNext() { return line != null && position < end; }
+
+    private int fieldEnd() {
+        if (position > end) throw new NumberFormatException("Missing field");
+        int tab = line.indexOf('\t', position);
+        return tab == -1 || tab > end ? end : tab;
+    }
+
+    /**
+     *
+     * @return the next field
+     */
+    String nextString() {
+        int stop = fieldEnd();
+        String field = line.substring(position, stop);
+        position = stop + 1;
+        return field;
+    }
+
+    /**
+     * Skips the next field
+     */
+    void skip() {
+        position = fieldEnd() + 1;
+    }
+
+    /**
+     *
+     * @return the next field as an int
+     * @throws NumberFormatException if it isn't an integer
+     */
+    int nextInt() {
+        int stop = fieldEnd();
+        int i = skipSpaces(position, stop);
+        int last = trimSpaces(i, stop);
+        boolean negative = false;
+        if (i < last && (line.charAt(i) == '-' || line.charAt(i) == '+')) negative = line.charAt(i++) == '-';
+        if (i == last) throw new NumberFormatException("Empty number");
+        long value = 0;
+        for (; i < last; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException("Not an integer: " + line.substring(position, stop));
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) throw new NumberFormatException("Too large: " + line.substring(position, stop));
+        }
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) throw new NumberFormatException("Too large: " + line.substring(position, stop));
+        position = stop + 1;
+        return (int) value;
+    }
+
+    /**
+     *
+     * @return the next field as a double, with a comma or a point as decimal separator
+     * @throws NumberFormatException if it isn't a number
+     */
+    double nextDouble() {
+        int stop = fieldEnd();
+        int start = skipSpaces(position, stop);
+        int last = trimSpaces(start, stop);
+        int i = start;
+        boolean negative = false;
+        if (i < last && (line.charAt(i) == '-' || line.charAt(i) == '+')) negative = line.charAt(i++) == '-';
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = -1;
+        boolean simple = i < last;
+        for (; i < last && simple; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (decimals >= 0) decimals++;
+            } else if ((c == ',' || c == '.') && decimals < 0) {
+                decimals = 0;
+            } else {
+                simple = false;
+            }
+        }
+        double value;
+        //exact when the mantissa fits in a double, anything else is left to Double.parseDouble
+        if (simple && digits > 0 && digits < POWERS_OF_TEN.length && mantissa < (1L << 53)) {
+            value = decimals > 0 ? mantissa / POWERS_OF_TEN[decimals] : mantissa;
+            if (negative) value = -value;
+        } else {
+            value = Double.parseDouble(line.substring(start, last).replace(',', '.'));
+        }
+        position = stop + 1;
+        return value;
+    }
+
+    private int skipSpaces(int from, int to) {
+        while (from < to && line.charAt(from) == ' ') from++;
+        return from;
+    }
+
+    private int trimSpaces(int from, int to) {
+        while (to > from && line.charAt(to - 1) == ' ') to--;
+        return to;
+    }
+}
@@ -0,0 +1,221 @@
+package model.pa.dijkstra;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+import model.pa.graph.Graph;
+import model.pa.graph.GraphSnapshot;
+import model.pa.graph.Vertex;
+import model.pa.model.Route;
+
+/**
+ * Shortest distances between every pair of vertices.
+ * One single source search is run per vertex, in parallel over a GraphSnapshot, and the results
+ * are kept in flat n * n arrays: row i holds the distances and predecessors of the search from vertex i
+ * @param <V>
+ */
+public class AllPairsShortestPaths<V> {
+    private final GraphSnapshot<V, Route> snapshot;
+    private final int n;
+    private final float[] dist;
+    private final int[] predecessor;
+
+    private AllPairsShortestPaths(GraphSnapshot<V, Route> snapshot) {
+        this.snapshot = snapshot;
+        this.n = snapshot.numVertices();
+        int size;
+        try {
+            size = Math.multiplyExact(n, n);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(String.format(
+                    "%d vertices have %d pairs, too many to keep the distances of every pair", n, (long) n * n));
+        }
+        this.dist = new float[size];
+        this.predecessor = new int[size];
+    }
+
+    /**
+     * Calculates the shortest distances between every pair of vertices of a graph
+     * @param network the graph
+     * @return the distances
+     */
+    public static <V> AllPairsShortestPaths<V> compute(Graph<V, Route> network) {
+        return compute(GraphSnapshot.of(network, Route::getDistance));
+    }
+
+    /**
+     * Calculates the shortest distances between every pair of vertices of a snapshot
+     * @param snapshot the graph
+     * @return the distances
+     * @throws IllegalArgumentException if the snapshot has more pairs of vertices than an array can hold
+     */
+    public static <V> AllPairsShortestPaths<V> compute(GraphSnapshot<V, Route> snapshot) {
+        AllPairsShortestPaths<V> result = new AllPairsShortestPaths<>(snapshot);
+        //a worker per search running at the same time, dropped with the queue once every row is filled
+        Queue<SnapshotDijkstra> workers = new ConcurrentLinkedQueue<>();
+        IntStream.range(0, result.n).parallel().forEach(source -> {
+            SnapshotDijkstra worker = workers.poll();
+            if (worker == null) worker = new SnapshotDijkstra(snapshot);
+            result.fillRow(worker, source);
+            workers.offer(worker);
+        });
+        return result;
+    }
+
+    /**
+     * Finds the pair of vertices that are connected and have the largest shortest distance, without keeping the
+     * distances of every pair: the single source searches run in parallel and each one only reports its farthest vertex
+     * @param snapshot the graph
+     * @return the path between them, or a null path with cost -Double.MAX_VALUE if no two vertices are connected
+     */
+    public static <V> DijkstraConcreteResult<V> diameter(GraphSnapshot<V, Route> snapshot) {
+        Queue<SnapshotDijkstra> workers = new ConcurrentLinkedQueue<>();
+        //{distance, source, target} of the farthest pair, ties go to the lowest source and then the lowest target
+        double[] farthest = IntStream.range(0, snapshot.numVertices()).parallel().mapToObj(source -> {
+            SnapshotDijkstra worker = workers.poll();
+            if (worker == null) worker = new SnapshotDijkstra(snapshot);
+            worker.run(source);
+            double[] pair = {-Double.MAX_VALUE, source, -1};
+            for (int i = 1; i < worker.settledCount(); i++) {
+                int v = worker.settled(i);
+                double d = worker.distance(v);
+                if (d > pair[0] || d == pair[0] && v < pair[2]) {
+                    pair[0] = d;
+                    pair[2] = v;
+                }
+            }
+            workers.offer(worker);
+            return pair;
+        }).reduce((a, b) -> a[0] > b[0] || a[0] == b[0] && a[1] < b[1] ? a : b).orElse(null);
+        if (farthest == null || farthest[2] == -1) return new DijkstraConcreteResult<>(-Double.MAX_VALUE, null);
+
+        SnapshotDijkstra worker = new SnapshotDijkstra(snapshot);
+        worker.run((int) farthest[1], (int) farthest[2]);
+        List<Vertex<V>> path = new ArrayList<>();
+        for (int k = (int) farthest[2]; k != -1; k = worker.predecessor(k)) {
+            path.add(snapshot.vertex(k));
+        }
+        Collections.reverse(path);
+        return new DijkstraConcreteResult<>(farthest[0], path);
+    }
+
+    private void fillRow(SnapshotDijkstra worker, int source) {
+        worker.run(source);
+        int row = source * n;
+        for (int v = 0; v < n; v++) {
+            double d = worker.distance(v);
+            if (d == Double.MAX_VALUE) {
+                dist[row + v] = Float.POSITIVE_INFINITY;
+                predecessor[row + v] = -1;
+            } else {
+                dist[row + v] = (float) d;
+                predecessor[row + v] = worker.predecessor(v);
+            }
+        }
+    }
+
+    /**
+     *
+     * @return the snapshot the distances were calculated on
+     */
+    public GraphSnapshot<V, Route> getSnapshot() { return snapshot; }
+
+    /**
+     *
+     * @param u origin vertex
+     * @param v destination vertex
+     * @return the shortest distance between the two, or Double.MAX_VALUE if there's no path
+     */
+    public double getCost(Vertex<V> u, Vertex<V> v) {
+        int i = snapshot.id(u);
+        int j = snapshot.id(v);
+        if (i == -1 || j == -1 || dist[i * n + j] == Float.POSITIVE_INFINITY) return Double.MAX_VALUE;
+        return dist[i * n + j];
+    }
+
+    /**
+     *
+     * @param u origin vertex
+     * @param v destination vertex
+     * @return the shortest path between the two as a DijkstraConcreteResult
+     */
+    public DijkstraConcreteResult<V> result(Vertex<V> u, Vertex<V> v) {
+        int i = snapshot.id(u);
+        int j = snapshot.id(v);
+        if (i == -1 || j == -1) return new DijkstraConcreteResult<>(Double.MAX_VALUE, null);
+        return result(i, j);
+    }
+
+    private DijkstraConcreteResult<V> result(int i, int j) {
+        if (dist[i * n + j] == Float.POSITIVE_INFINITY) return new DijkstraConcreteResult<>(Double.MAX_VALUE, null);
+        List<Vertex<V>> path = new ArrayList<>();
+        for (int k = j; k != -1; k = predecessor[i * n + k]) {
+            path.add(snapshot.vertex(k));
+        }
+        Collections.reverse(path);
+        return new DijkstraConcreteResult<>(dist[i * n + j], path);
+    }
+
+    /**
+     *
+     * @param v a vertex
+     * @return the largest shortest distance from v to a vertex it can reach
+     */
+    public double eccentricity(Vertex<V> v) {
+        int i = snapshot.id(v);
+        double max = 0;
+        for (int j = 0; j < n; j++) {
+            float d = dist[i * n + j];
+            if (d != Float.POSITIVE_INFINITY && d > max) max = d;
+        }
+        return max;
+    }
+
+    /**
+     *
+     * @return the average shortest distance between pairs of distinct vertices connected by a path
+     */
+    public double averagePathLength() {
+        double sum = 0;
+        long count = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                float d = dist[i * n + j];
+                if (i == j || d == Float.POSITIVE_INFINITY) continue;
+                sum += d;
+                count++;
+            }
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Finds the pair of vertices that are connected and have the largest shortest distance.
+     * diameter(GraphSnapshot) finds it without the matrix
+     * @return the path between them, or a null path with cost -Double.MAX_VALUE if no two vertices are connected
+     */
+    public DijkstraConcreteResult<V> diameter() {
+        int bestI = -1, bestJ = -1;
+        float best = -Float.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                float d = dist[i * n + j];
+                if (i == j || d == Float.POSITIVE_INFINITY) continue;
+                if (d > best) {
+                    best = d;
+                    bestI = i;
+                    bestJ = j;
+                }
+            }
+        }
+        if (bestI == -1) return new DijkstraConcreteResult<>(-Double.MAX_VALUE, null);
+        return result(bestI, bestJ);
+    }
+
+    @Override
+    public String toString() {
+        return "AllPairsShortestPaths{" +
+                "snapshot=" + snapshot +
+                '}';
+    }
+}
@@ -0,0 +1,524 @@
+package model.pa.dijkstra;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import model.pa.graph.Edge;
+import model.pa.graph.GraphSnapshot;
+import model.pa.graph.Vertex;
+import model.pa.model.Route;
+
+/**
+ * Contraction hierarchy of a GraphSnapshot, for fast shortest path queries on a graph that rarely changes.
+ * Vertices are contracted one at a time, least important first, adding a shortcut between two neighbours
+ * whenever the path through the contracted vertex is the only shortest one. Each contracted vertex keeps only the
+ * arcs to vertices contracted after it. Contraction stops once the remaining graph gets dense, where every vertex
+ * would need many shortcuts, and those vertices are left as the core, which keeps all its arcs.
+ * A query first runs upward searches from both ends through the contracted vertices, which reach the core or meet
+ * at the most important vertex of the path, and then a bidirectional Dijkstra inside the core started from the core
+ * vertices they reached. Shortcuts remember the vertex they skip, so paths are unpacked back to the original routes.
+ * The hierarchy is immutable once built and queries can run from several threads
+ * @param <V>
+ */
+public class ContractionHierarchy<V> {
+    //witness searches of the priority estimates and of the actual contraction
+    private static final int ESTIMATE_SETTLE_LIMIT = 50;
+    private static final int ESTIMATE_HOP_LIMIT = 2;
+    private static final int CONTRACT_SETTLE_LIMIT = 500;
+    private static final int CONTRACT_HOP_LIMIT = 6;
+    //contraction stops when the remaining vertices have this many arcs on average
+    private static final double CORE_DEGREE = 12;
+
+    private final GraphSnapshot<V, Route> snapshot;
+    private final int[] rank;
+    private final boolean[] core;
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upWeights;
+    private final int[] upMiddles;
+    private final int[] upSlots;
+    private final int shortcutCount;
+    private final int coreSize;
+    //query arrays, one per query running at the same time
+    private final Queue<Workspace> workspaces = new ConcurrentLinkedQueue<>();
+
+    private ContractionHierarchy(GraphSnapshot<V, Route> snapshot, int[] rank, boolean[] core, List<List<int[]>> upArcs,
+                                 int shortcutCount) {
+        this.snapshot = snapshot;
+        this.rank = rank;
+        this.core = core;
+        this.shortcutCount = shortcutCount;
+        int n = snapshot.numVertices();
+        int size = 0;
+        for (boolean c : core) if (c) size++;
+        this.coreSize = size;
+        upOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) upOffsets[v + 1] = upOffsets[v] + upArcs.get(v).size();
+        upTargets = new int[upOffsets[n]];
+        upWeights = new int[upOffsets[n]];
+        upMiddles = new int[upOffsets[n]];
+        upSlots = new int[upOffsets[n]];
+        for (int v = 0; v < n; v++) {
+            int i = upOffsets[v];
+            for (int[] arc : upArcs.get(v)) {
+                upTargets[i] = arc[0];
+                upWeights[i] = arc[1];
+                upMiddles[i] = arc[2];
+                upSlots[i] = arc[3];
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Contracts the vertices of the snapshot
+     * @param snapshot the graph
+     * @return the hierarchy
+     */
+    public static <V> ContractionHierarchy<V> build(GraphSnapshot<V, Route> snapshot) {
+        return new Builder<>(snapshot).build();
+    }
+
+    /**
+     *
+     * @return the graph the hierarchy was built from
+     */
+    public GraphSnapshot<V, Route> getSnapshot() { return snapshot; }
+
+    /**
+     *
+     * @return how many shortcuts were added
+     */
+    public int getShortcutCount() { return shortcutCount; }
+
+    /**
+     *
+     * @return how many vertices were left uncontracted in the core
+     */
+    public int getCoreSize() { return coreSize; }
+
+    /**
+     * Calculates the shortest path between two vertices
+     * @param start origin vertex
+     * @param end destination vertex
+     * @return the cost and path, or a cost of Double.MAX_VALUE and a null path if end can't be reached,
+     * with the number of vertices the query settled
+     */
+    public DijkstraConcreteResult<V> shortestPath(Vertex<V> start, Vertex<V> end) {
+        Query query = query(start, end);
+        List<Integer> ids = query.ids;
+        if (ids == null) return new DijkstraConcreteResult<>(Double.MAX_VALUE, null, query.settled);
+
+        double cost = 0;
+        List<Vertex<V>> path = new ArrayList<>();
+        path.add(snapshot.vertex(ids.get(0)));
+        for (int i = 0; i + 1 < ids.size(); i++) {
+            cost += upWeights[findArc(ids.get(i), ids.get(i + 1))];
+            unpack(ids.get(i), ids.get(i + 1), path, null);
+        }
+        return new DijkstraConcreteResult<>(cost, path, query.settled);
+    }
+
+    /**
+     * Calculates the routes of the shortest path between two vertices
+     * @param start origin vertex
+     * @param end destination vertex
+     * @return the original edges along the path, or null if end can't be reached
+     */
+    public List<Edge<Route, V>> shortestPathEdges(Vertex<V> start, Vertex<V> end) {
+        List<Integer> ids = query(start, end).ids;
+        if (ids == null) return null;
+        List<Vertex<V>> path = new ArrayList<>();
+        List<Edge<Route, V>> edges = new ArrayList<>();
+        for (int i = 0; i + 1 < ids.size(); i++) {
+            unpack(ids.get(i), ids.get(i + 1), path, edges);
+        }
+        return edges;
+    }
+
+    /**
+     * Outcome of a query: the ids along the path in the hierarchy, where consecutive ids may be joined by a shortcut,
+     * or null if there's no path, and how many vertices it settled
+     */
+    private static final class Query {
+        private final List<Integer> ids;
+        private final int settled;
+
+        Query(List<Integer> ids, int settled) {
+            this.ids = ids;
+            this.settled = settled;
+        }
+    }
+
+    /**
+     * Runs the searches from both ends
+     */
+    private Query query(Vertex<V> start, Vertex<V> end) {
+        int s = snapshot.id(start);
+        int t = snapshot.id(end);
+        if (s == -1 || t == -1) return new Query(null, 0);
+        if (s == t) return new Query(new ArrayList<>(Collections.singletonList(s)), 1);
+
+        Workspace w = workspaces.poll();
+        if (w == null) w = new Workspace(snapshot.numVertices());
+        try {
+            return w.query(s, t);
+        } finally {
+            w.reset();
+            workspaces.offer(w);
+        }
+    }
+
+    /**
+     * Arrays of one query, reused by later queries. Only the entries a query touched are reset afterwards
+     */
+    private final class Workspace {
+        private final double[][] dist;
+        private final int[][] predecessor;
+        private final IndexedMinHeap[] heaps;
+        private final IndexedMinHeap[] coreHeaps;
+        private final int[][] touched;
+        private final int[] touchedCount = new int[2];
+        private double best;
+        private int meeting;
+        private int settled;
+
+        Workspace(int n) {
+            dist = new double[2][n];
+            predecessor = new int[2][n];
+            heaps = new IndexedMinHeap[]{new IndexedMinHeap(n), new IndexedMinHeap(n)};
+            coreHeaps = new IndexedMinHeap[]{new IndexedMinHeap(n), new IndexedMinHeap(n)};
+            touched = new int[2][n];
+            Arrays.fill(dist[0], Double.MAX_VALUE);
+            Arrays.fill(dist[1], Double.MAX_VALUE);
+        }
+
+        /**
+         * Lowers the distance of v from one side, and the best path if the other side has reached v too
+         */
+        private void reach(int side, int v, double d, int from) {
+            if (dist[side][v] == Double.MAX_VALUE) touched[side][touchedCount[side]++] = v;
+            dist[side][v] = d;
+            predecessor[side][v] = from;
+            double other = dist[1 - side][v];
+            if (other != Double.MAX_VALUE && d + other < best) {
+                best = d + other;
+                meeting = v;
+            }
+        }
+
+        void reset() {
+            for (int side = 0; side < 2; side++) {
+                for (int i = 0; i < touchedCount[side]; i++) dist[side][touched[side][i]] = Double.MAX_VALUE;
+                touchedCount[side] = 0;
+                heaps[side].clear();
+                coreHeaps[side].clear();
+            }
+        }
+
+        Query query(int s, int t) {
+            best = Double.MAX_VALUE;
+            meeting = -1;
+            settled = 0;
+            reach(0, s, 0, -1);
+            reach(1, t, 0, -1);
+            for (int side = 0; side < 2; side++) {
+                int v = side == 0 ? s : t;
+                if (core[v]) coreHeaps[side].insertOrDecrease(v, 0);
+                else heaps[side].insertOrDecrease(v, 0);
+            }
+            upward(0);
+            upward(1);
+            inCore();
+
+            if (meeting == -1) return new Query(null, settled);
+            List<Integer> ids = new ArrayList<>();
+            for (int i = meeting; i != -1; i = predecessor[0][i]) ids.add(i);
+            Collections.reverse(ids);
+            for (int i = predecessor[1][meeting]; i != -1; i = predecessor[1][i]) ids.add(i);
+            return new Query(ids, settled);
+        }
+
+        /**
+         * Dijkstra over the arcs of the contracted vertices, with stall-on-demand: a vertex that can be reached more
+         * cheaply through one of its higher neighbours is not on a shortest path, so its arcs are not relaxed.
+         * It runs until no contracted vertex is left under the best distance, and the core vertices it reaches
+         * are left in the core heap
+         */
+        private void upward(int side) {
+            double[] d = dist[side];
+            IndexedMinHeap heap = heaps[side];
+            while (!heap.isEmpty() && heap.peekPriority() < best) {
+                int u = heap.poll();
+                settled++;
+                boolean stalled = false;
+                for (int i = upOffsets[u]; i < upOffsets[u + 1]; i++) {
+                    int w = upTargets[i];
+                    if (d[w] != Double.MAX_VALUE && d[w] + upWeights[i] < d[u]) {
+                        stalled = true;
+                        break;
+                    }
+                }
+                if (stalled) continue;
+                for (int i = upOffsets[u]; i < upOffsets[u + 1]; i++) {
+                    int w = upTargets[i];
+                    double totalDist = d[u] + upWeights[i];
+                    if (totalDist < d[w]) {
+                        reach(side, w, totalDist, u);
+                        (core[w] ? coreHeaps[side] : heap).insertOrDecrease(w, totalDist);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Bidirectional Dijkstra inside the core, from the core vertices the upward searches reached.
+         * Those are like arcs from one source and to one target, so it can stop once the two smallest
+         * distances add up to the best path
+         */
+        private void inCore() {
+            int side = 0;
+            while (true) {
+                double minF = coreHeaps[0].isEmpty() ? Double.MAX_VALUE : coreHeaps[0].peekPriority();
+                double minB = coreHeaps[1].isEmpty() ? Double.MAX_VALUE : coreHeaps[1].peekPriority();
+                if (minF == Double.MAX_VALUE || minB == Double.MAX_VALUE || minF + minB >= best) return;
+                if (minB < minF) side = 1;
+                else side = 0;
+
+                double[] d = dist[side];
+                int u = coreHeaps[side].poll();
+                settled++;
+                for (int i = upOffsets[u]; i < upOffsets[u + 1]; i++) {
+                    int w = upTargets[i];
+                    double totalDist = d[u] + upWeights[i];
+                    if (totalDist < d[w]) {
+                        reach(side, w, totalDist, u);
+                        coreHeaps[side].insertOrDecrease(w, totalDist);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the arc between a and b by the original edges it stands for,
+     * appending every vertex after a to path and every original edge to edges
+     */
+    private void unpack(int a, int b, List<Vertex<V>> path, List<Edge<Route, V>> edges) {
+        int arc = findArc(a, b);
+        int middle = upMiddles[arc];
+        if (middle == -1) {
+            path.add(snapshot.vertex(b));
+            if (edges != null) edges.add(snapshot.edge(upSlots[arc]));
+            return;
+        }
+        unpack(a, middle, path, edges);
+        unpack(middle, b, path, edges);
+    }
+
+    private int findArc(int a, int b) {
+        int low = rank[a] < rank[b] ? a : b;
+        int high = low == a ? b : a;
+        for (int i = upOffsets[low]; i < upOffsets[low + 1]; i++) {
+            if (upTargets[i] == high) return i;
+        }
+        throw new IllegalStateException("Missing arc between " + a + " and " + b);
+    }
+
+    @Override
+    public String toString() {
+        return "ContractionHierarchy{" +
+                "snapshot=" + snapshot +
+                ", shortcuts=" + shortcutCount +
+                ", core=" + coreSize +
+                '}';
+    }
+
+    /**
+     * Contraction state, only used while building the hierarchy.
+     * Arcs are int[]{weight, middle vertex or -1, slot of the original edge or -1}.
+     * The priority of a vertex is its edge difference (shortcuts it needs minus arcs it removes) plus its contracted
+     * neighbours. Priorities are estimated with small witness searches and only recalculated for the neighbours of
+     * each contracted vertex and, lazily, for the vertex about to be contracted
+     */
+    private static class Builder<V> {
+        private final GraphSnapshot<V, Route> snapshot;
+        private final int n;
+        private final List<Map<Integer, int[]>> adjacency;
+        private final int[] contractedNeighbours;
+        private final int[] priority;
+        private final int[] witnessDist;
+        private final int[] witnessHops;
+        private final int[] touched;
+        private final IndexedMinHeap witnessHeap;
+
+        Builder(GraphSnapshot<V, Route> snapshot) {
+            this.snapshot = snapshot;
+            this.n = snapshot.numVertices();
+            this.adjacency = new ArrayList<>(n);
+            this.contractedNeighbours = new int[n];
+            this.priority = new int[n];
+            this.witnessDist = new int[n];
+            this.witnessHops = new int[n];
+            this.touched = new int[n];
+            this.witnessHeap = new IndexedMinHeap(n);
+            Arrays.fill(witnessDist, Integer.MAX_VALUE);
+
+            for (int v = 0; v < n; v++) {
+                Map<Integer, int[]> arcs = new HashMap<>();
+                for (int slot = snapshot.offset(v); slot < snapshot.offset(v + 1); slot++) {
+                    int w = snapshot.target(slot);
+                    if (w == v) continue;
+                    int[] arc = arcs.get(w);
+                    if (arc == null || snapshot.weight(slot) < arc[0]) {
+                        arcs.put(w, new int[]{snapshot.weight(slot), -1, slot});
+                    }
+                }
+                adjacency.add(arcs);
+            }
+        }
+
+        ContractionHierarchy<V> build() {
+            int[] rank = new int[n];
+            boolean[] contracted = new boolean[n];
+            List<List<int[]>> upArcs = new ArrayList<>(n);
+            for (int v = 0; v < n; v++) upArcs.add(new ArrayList<>());
+
+            //entries are int[]{priority, vertex}, and an entry whose priority is no longer the vertex's is skipped
+            PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+            long arcCount = 0;
+            for (int v = 0; v < n; v++) {
+                priority[v] = estimate(v);
+                queue.add(new int[]{priority[v], v});
+                arcCount += adjacency.get(v).size();
+            }
+
+            int order = 0;
+            int remaining = n;
+            int shortcutCount = 0;
+            while (!queue.isEmpty() && arcCount < CORE_DEGREE * remaining) {
+                int[] entry = queue.poll();
+                int v = entry[1];
+                if (contracted[v] || entry[0] != priority[v]) continue;
+                //lazy update: contracting other vertices may have made this one more expensive
+                int p = estimate(v);
+                if (p > priority[v]) {
+                    priority[v] = p;
+                    queue.add(new int[]{p, v});
+                    continue;
+                }
+
+                rank[v] = order++;
+                contracted[v] = true;
+                remaining--;
+                List<int[]> shortcuts = shortcuts(v, CONTRACT_SETTLE_LIMIT, CONTRACT_HOP_LIMIT);
+                Map<Integer, int[]> arcs = adjacency.get(v);
+                for (Map.Entry<Integer, int[]> e : arcs.entrySet()) {
+                    int[] arc = e.getValue();
+                    upArcs.get(v).add(new int[]{e.getKey(), arc[0], arc[1], arc[2]});
+                    adjacency.get(e.getKey()).remove(v);
+                    contractedNeighbours[e.getKey()]++;
+                }
+                arcCount -= 2L * arcs.size();
+                adjacency.set(v, Collections.emptyMap());
+
+                for (int[] shortcut : shortcuts) {
+                    int u = shortcut[0], w = shortcut[1], weight = shortcut[2];
+                    int[] existing = adjacency.get(u).get(w);
+                    if (existing != null && existing[0] <= weight) continue;
+                    if (existing == null) arcCount += 2;
+                    adjacency.get(u).put(w, new int[]{weight, v, -1});
+                    adjacency.get(w).put(u, new int[]{weight, v, -1});
+                    shortcutCount++;
+                }
+
+                for (int w : arcs.keySet()) {
+                    int q = estimate(w);
+                    if (q != priority[w]) {
+                        priority[w] = q;
+                        queue.add(new int[]{q, w});
+                    }
+                }
+            }
+
+            //the vertices left are the core, above every contracted vertex and keeping all their arcs
+            boolean[] core = new boolean[n];
+            for (int v = 0; v < n; v++) {
+                if (contracted[v]) continue;
+                core[v] = true;
+                rank[v] = order++;
+                for (Map.Entry<Integer, int[]> e : adjacency.get(v).entrySet()) {
+                    int[] arc = e.getValue();
+                    upArcs.get(v).add(new int[]{e.getKey(), arc[0], arc[1], arc[2]});
+                }
+            }
+            return new ContractionHierarchy<>(snapshot, rank, core, upArcs, shortcutCount);
+        }
+
+        /**
+         * Edge difference plus contracted neighbours, with the cheaper witness searches of the estimates
+         */
+        private int estimate(int v) {
+            return shortcuts(v, ESTIMATE_SETTLE_LIMIT, ESTIMATE_HOP_LIMIT).size() - adjacency.get(v).size()
+                    + contractedNeighbours[v];
+        }
+
+        /**
+         * Finds the shortcuts needed to contract v, as int[]{u, w, weight} with u < w
+         */
+        private List<int[]> shortcuts(int v, int settleLimit, int hopLimit) {
+            List<int[]> shortcuts = new ArrayList<>();
+            Map<Integer, int[]> arcs = adjacency.get(v);
+            for (Map.Entry<Integer, int[]> first : arcs.entrySet()) {
+                int u = first.getKey();
+                int max = -1;
+                for (Map.Entry<Integer, int[]> second : arcs.entrySet()) {
+                    if (second.getKey() > u) max = Math.max(max, first.getValue()[0] + second.getValue()[0]);
+                }
+                if (max == -1) continue;
+
+                int count = witnessSearch(u, v, max, settleLimit, hopLimit);
+                for (Map.Entry<Integer, int[]> second : arcs.entrySet()) {
+                    int w = second.getKey();
+                    if (w <= u) continue;
+                    int viaV = first.getValue()[0] + second.getValue()[0];
+                    if (witnessDist[w] > viaV) shortcuts.add(new int[]{u, w, viaV});
+                }
+                for (int i = 0; i < count; i++) witnessDist[touched[i]] = Integer.MAX_VALUE;
+            }
+            return shortcuts;
+        }
+
+        /**
+         * Dijkstra from u that avoids v, stopping past max, after settleLimit vertices or at paths of hopLimit arcs.
+         * A witness that isn't found only costs an unneeded shortcut
+         * @return how many entries of witnessDist were set, listed in touched
+         */
+        private int witnessSearch(int u, int v, int max, int settleLimit, int hopLimit) {
+            witnessHeap.clear();
+            int count = 0;
+            witnessDist[u] = 0;
+            witnessHops[u] = 0;
+            touched[count++] = u;
+            witnessHeap.insertOrDecrease(u, 0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && settled < settleLimit) {
+                if (witnessHeap.peekPriority() > max) break;
+                int x = witnessHeap.poll();
+                settled++;
+                if (witnessHops[x] == hopLimit) continue;
+                for (Map.Entry<Integer, int[]> entry : adjacency.get(x).entrySet()) {
+                    int y = entry.getKey();
+                    if (y == v) continue;
+                    int d = witnessDist[x] + entry.getValue()[0];
+                    if (d < witnessDist[y]) {
+                        if (witnessDist[y] == Integer.MAX_VALUE) touched[count++] = y;
+                        witnessDist[y] = d;
+                        witnessHops[y] = witnessHops[x] + 1;
+                        witnessHeap.insertOrDecrease(y, d);
+                    }
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -6,12 +6,22 @@ import model.pa.graph.Vertex;
 public class DijkstraConcreteResult <V> {
     private double dist;
     private List<Vertex<V>> path;
+    private int settledCount = -1;
 
     public DijkstraConcreteResult(double dist, List<Vertex<V>> path) {
         this.dist = dist;
         this.path = path;
     }
 
+    /**
+     * Constructor for searches that report their work with the result, because several can run on the same engine
+     * @param settledCount how many vertices the search settled
+     */
+    public DijkstraConcreteResult(double dist, List<Vertex<V>> path, int settledCount) {
+        this(dist, path);
+        this.settledCount = settledCount;
+    }
+
     public double getCost() {
         return dist;
     }
@@ -20,6 +30,14 @@ public class DijkstraConcreteResult <V> {
         return path;
     }
 
+    /**
+     *
+     * @return how many vertices the search settled, or -1 if it didn't report it
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
     @Override
     public String toString(){
         return "Dijkstra: { Distance: "+ dist + ", Path: " + path +"}";
@@ -1,10 +1,8 @@
 package model.pa.dijkstra;
 
 import java.util.*;
-import model.pa.graph.GraphAdjacencyMatrix;
 import model.pa.graph.Graph;
 import model.pa.graph.Vertex;
-import model.pa.graph.Edge;
 import model.pa.model.Airport;
 import model.pa.model.Route;
 
@@ -32,16 +30,12 @@ public class DijkstraResult<V> {
         }
 
         dijkstraResult.minDist.put(start, 0.0);
-        GraphAdjacencyMatrix<V, Route> network = (GraphAdjacencyMatrix<V, Route>) this.network;
-
-        unvisited.removeIf(v -> network.incidentEdges(v).isEmpty());
+        unvisited.removeIf(v -> network.degree(v) == 0);
         //unvisited.removeIf(v -> !network.DFS(start).contains(v));
 
         while(!unvisited.isEmpty()){
             Vertex<V> currentH = findMinDistVertex(dijkstraResult.minDist, unvisited);
-            for (Edge<Route, V> e : this.network.incidentEdges(currentH)) {
-                Vertex<V> oppositeH = this.network.opposite(currentH, e);
-
+            network.forEachIncident(currentH, (e, oppositeH) -> {
                 if (unvisited.contains(oppositeH)) {
                     double currentDist = dijkstraResult.minDist.get(currentH);
                     double edgeDist = e.element().getDistance();
@@ -52,7 +46,7 @@ public class DijkstraResult<V> {
                         dijkstraResult.predecessors.put(oppositeH, currentH);
                     }
                 }
-            }
+            });
             unvisited.remove(currentH);
         }
         Double dist = dijkstraResult.minDist.get(end);
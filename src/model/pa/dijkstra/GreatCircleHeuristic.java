@@ -0,0 +1,60 @@
+package model.pa.dijkstra;
+
+import model.pa.graph.Edge;
+import model.pa.graph.Graph;
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.Route;
+
+/**
+ * A* heuristic based on the great-circle distance between airports.
+ * Route distances don't always match geography, so the great-circle distance is scaled down by the
+ * smallest ratio between a route's distance and the great-circle distance of its airports.
+ * Any scale of a great-circle distance respects the triangle inequality, so the scaled estimate stays
+ * a lower bound. If some airport has no coordinates the estimate is always 0 and A* behaves as Dijkstra
+ */
+public class GreatCircleHeuristic implements Heuristic<Airport> {
+    private final double scale;
+
+    /**
+     * Constructor, checks every route of the network
+     * @param network the graph the search will run on
+     */
+    public GreatCircleHeuristic(Graph<Airport, Route> network) {
+        double s = 1;
+        for (Vertex<Airport> v : network.vertices()) {
+            if (!v.element().hasCoordinates()) s = 0;
+        }
+        for (Edge<Route, Airport> e : network.edges()) {
+            if (s == 0) break;
+            double greatCircle = e.vertices()[0].element().distanceTo(e.vertices()[1].element());
+            if (greatCircle > 0) s = Math.min(s, e.element().getDistance() / greatCircle);
+        }
+        this.scale = s;
+    }
+
+    /**
+     *
+     * @return false if the estimate is always 0, i.e. the search will be plain Dijkstra
+     */
+    public boolean isUsable() { return scale > 0; }
+
+    /**
+     *
+     * @return the factor applied to great-circle distances, between 0 and 1
+     */
+    public double getScale() { return scale; }
+
+    @Override
+    public double estimate(Vertex<Airport> v, Vertex<Airport> target) {
+        if (scale == 0) return 0;
+        return scale * v.element().distanceTo(target.element());
+    }
+
+    @Override
+    public String toString() {
+        return "GreatCircleHeuristic{" +
+                "scale=" + scale +
+                '}';
+    }
+}
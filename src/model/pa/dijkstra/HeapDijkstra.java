@@ -0,0 +1,208 @@
+package model.pa.dijkstra;
+
+import java.util.*;
+import model.pa.graph.Graph;
+import model.pa.graph.Vertex;
+import model.pa.model.Route;
+
+/**
+ * Dijkstra's algorithm over an indexed heap.
+ * Vertices get an int id when they are first reached, so distances and predecessors
+ * are kept in primitive arrays, and the search stops as soon as the destination is settled.
+ * Given a Heuristic the same search runs as A*
+ * @param <V>
+ */
+public class HeapDijkstra<V> {
+    private Graph<V, Route> network;
+    private int settledCount;
+
+    /**
+     * Constructor
+     * @param network the graph to search
+     */
+    public HeapDijkstra(Graph<V, Route> network) {
+        this.network = network;
+    }
+
+    /**
+     * Calculates the shortest path between two vertices
+     * @param start origin vertex
+     * @param end destination vertex
+     * @return the cost and path, or a cost of Double.MAX_VALUE and a null path if end can't be reached
+     */
+    public DijkstraConcreteResult<V> dijkstra(Vertex<V> start, Vertex<V> end) {
+        ShortestPathTree<V> tree = search(start, end, null);
+        return tree.resultTo(end);
+    }
+
+    /**
+     * Calculates the shortest path between two vertices with A*
+     * @param start origin vertex
+     * @param end destination vertex
+     * @param heuristic lower bound of the distance to end
+     * @return the cost and path, or a cost of Double.MAX_VALUE and a null path if end can't be reached
+     */
+    public DijkstraConcreteResult<V> aStar(Vertex<V> start, Vertex<V> end, Heuristic<V> heuristic) {
+        ShortestPathTree<V> tree = search(start, end, heuristic);
+        return tree.resultTo(end);
+    }
+
+    /**
+     * Calculates the shortest path between two vertices searching from both ends at once.
+     * The two searches take turns settling a vertex and stop when the sum of the smallest
+     * distances left in their heaps can no longer beat the best meeting point found
+     * @param start origin vertex
+     * @param end destination vertex
+     * @return the cost and path, or a cost of Double.MAX_VALUE and a null path if end can't be reached
+     */
+    public DijkstraConcreteResult<V> bidirectional(Vertex<V> start, Vertex<V> end) {
+        settledCount = 0;
+        if (start == end) {
+            settledCount = 1;
+            return new DijkstraConcreteResult<>(0, new ArrayList<>(Collections.singletonList(start)));
+        }
+        int n = network.numVertices();
+        double[][] dist = new double[2][n];
+        int[][] predecessor = new int[2][n];
+        IndexedMinHeap[] heaps = {new IndexedMinHeap(n), new IndexedMinHeap(n)};
+        List<Vertex<V>> vertices = new ArrayList<>();
+        Map<Vertex<V>, Integer> ids = new HashMap<>();
+
+        int s = addVertex(start, vertices, ids, dist);
+        int t = addVertex(end, vertices, ids, dist);
+        dist[0][s] = 0;
+        dist[1][t] = 0;
+        predecessor[0][s] = -1;
+        predecessor[1][t] = -1;
+        heaps[0].insertOrDecrease(s, 0);
+        heaps[1].insertOrDecrease(t, 0);
+
+        //best distance found so far and the vertex where the two searches met, updated from the visitor
+        double[] best = {Double.MAX_VALUE};
+        int[] meeting = {-1};
+        int side = 0;
+        while (!heaps[0].isEmpty() && !heaps[1].isEmpty()) {
+            if (heaps[0].peekPriority() + heaps[1].peekPriority() >= best[0]) break;
+
+            int u = heaps[side].poll();
+            settledCount++;
+            double[] near = dist[side], far = dist[1 - side];
+            int[] pred = predecessor[side];
+            IndexedMinHeap heap = heaps[side];
+            network.forEachIncident(vertices.get(u), (e, opposite) -> {
+                Integer id = ids.get(opposite);
+                int w = id == null ? addVertex(opposite, vertices, ids, dist) : id;
+
+                double totalDist = near[u] + e.element().getDistance();
+                if (totalDist < near[w]) {
+                    near[w] = totalDist;
+                    pred[w] = u;
+                    heap.insertOrDecrease(w, totalDist);
+                }
+                if (far[w] != Double.MAX_VALUE && near[w] + far[w] < best[0]) {
+                    best[0] = near[w] + far[w];
+                    meeting[0] = w;
+                }
+            });
+            side = 1 - side;
+        }
+
+        if (meeting[0] == -1) {
+            return new DijkstraConcreteResult<>(Double.MAX_VALUE, null);
+        }
+        List<Vertex<V>> path = new ArrayList<>();
+        for (int i = meeting[0]; i != -1; i = predecessor[0][i]) {
+            path.add(vertices.get(i));
+        }
+        Collections.reverse(path);
+        for (int i = predecessor[1][meeting[0]]; i != -1; i = predecessor[1][i]) {
+            path.add(vertices.get(i));
+        }
+        return new DijkstraConcreteResult<>(best[0], path);
+    }
+
+    /**
+     * Gives the next id to a vertex reached for the first time by a bidirectional search
+     */
+    private int addVertex(Vertex<V> v, List<Vertex<V>> vertices, Map<Vertex<V>, Integer> ids, double[][] dist) {
+        int id = vertices.size();
+        ids.put(v, id);
+        vertices.add(v);
+        dist[0][id] = Double.MAX_VALUE;
+        dist[1][id] = Double.MAX_VALUE;
+        return id;
+    }
+
+    /**
+     * Calculates the shortest paths from a vertex to every vertex it can reach
+     * @param start origin vertex
+     * @return the shortest path tree rooted at start
+     */
+    public ShortestPathTree<V> shortestPathTree(Vertex<V> start) {
+        return search(start, null, null);
+    }
+
+    /**
+     *
+     * @return how many vertices the last search settled
+     */
+    public int getSettledCount() { return settledCount; }
+
+    /**
+     * Runs the search until end is settled, or until every reachable vertex is settled if end is null.
+     * Vertices left in the heap when it stops early keep their tentative distances.
+     * With a heuristic, vertices come out of the heap by distance plus estimate
+     */
+    private ShortestPathTree<V> search(Vertex<V> start, Vertex<V> end, Heuristic<V> heuristic) {
+        int n = network.numVertices();
+        double[] dist = new double[n];
+        double[] estimate = heuristic == null ? null : new double[n];
+        int[] predecessor = new int[n];
+        List<Vertex<V>> vertices = new ArrayList<>();
+        Map<Vertex<V>, Integer> ids = new HashMap<>();
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+
+        ids.put(start, 0);
+        vertices.add(start);
+        dist[0] = 0;
+        predecessor[0] = -1;
+        heap.insertOrDecrease(0, 0);
+        settledCount = 0;
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settledCount++;
+            Vertex<V> current = vertices.get(u);
+            if (current == end) break;
+            network.forEachIncident(current, (e, opposite) -> {
+                Integer id = ids.get(opposite);
+                int w;
+                if (id == null) {
+                    w = vertices.size();
+                    ids.put(opposite, w);
+                    vertices.add(opposite);
+                    dist[w] = Double.MAX_VALUE;
+                    if (estimate != null) estimate[w] = heuristic.estimate(opposite, end);
+                } else {
+                    w = id;
+                }
+
+                double totalDist = dist[u] + e.element().getDistance();
+                if (totalDist < dist[w]) {
+                    dist[w] = totalDist;
+                    predecessor[w] = u;
+                    heap.insertOrDecrease(w, estimate == null ? totalDist : totalDist + estimate[w]);
+                }
+            });
+        }
+
+        return new ShortestPathTree<>(vertices, ids, dist, predecessor);
+    }
+
+    @Override
+    public String toString() {
+        return "HeapDijkstra{" +
+                "network=" + network +
+                '}';
+    }
+}
@@ -0,0 +1,20 @@
+package model.pa.dijkstra;
+
+import model.pa.graph.Vertex;
+
+/**
+ * Lower bound of the remaining distance to the destination, used to guide an A* search.
+ * To keep the paths optimal it must never overestimate, and estimate(u) must not be larger
+ * than the distance from u to a neighbour v plus estimate(v)
+ * @param <V>
+ */
+public interface Heuristic<V> {
+
+    /**
+     *
+     * @param v a vertex
+     * @param target the destination of the search
+     * @return a lower bound of the distance from v to target
+     */
+    double estimate(Vertex<V> v, Vertex<V> target);
+}
@@ -0,0 +1,136 @@
+package model.pa.dijkstra;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed d-ary min heap of int keys in the range [0, capacity) ordered by a double priority.
+ * Each key is in the heap at most once, so its priority can be lowered in place (decrease-key)
+ */
+public class IndexedMinHeap {
+    private static final int ARITY = 4;
+
+    private final int[] heap;
+    private final int[] position;
+    private final double[] priority;
+    private int size;
+
+    /**
+     * Constructor
+     * @param capacity number of keys the heap can hold, keys go from 0 to capacity - 1
+     */
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.priority = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     *
+     * @return true if the heap has no keys
+     */
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     *
+     * @return the number of keys in the heap
+     */
+    public int size() { return size; }
+
+    /**
+     *
+     * @param key the key to check
+     * @return true if the key is in the heap
+     */
+    public boolean contains(int key) { return position[key] != -1; }
+
+    /**
+     * Inserts the key, or lowers its priority if it is already in the heap with a higher one
+     * @param key the key
+     * @param p the new priority
+     * @return true if the heap changed
+     */
+    public boolean insertOrDecrease(int key, double p) {
+        int i = position[key];
+        if (i == -1) {
+            i = size++;
+            heap[i] = key;
+            position[key] = i;
+        } else if (p >= priority[key]) {
+            return false;
+        }
+        priority[key] = p;
+        siftUp(i);
+        return true;
+    }
+
+    /**
+     *
+     * @return the priority of the key at the top of the heap
+     */
+    public double peekPriority() {
+        if (size == 0) throw new NoSuchElementException("Empty heap.");
+        return priority[heap[0]];
+    }
+
+    /**
+     * Removes the key with the lowest priority
+     * @return the key removed
+     */
+    public int poll() {
+        if (size == 0) throw new NoSuchElementException("Empty heap.");
+        int top = heap[0];
+        position[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Removes every key, only touching the keys still in the heap
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) position[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int key = heap[i];
+        double p = priority[key];
+        while (i > 0) {
+            int parent = (i - 1) / ARITY;
+            int parentKey = heap[parent];
+            if (priority[parentKey] <= p) break;
+            heap[i] = parentKey;
+            position[parentKey] = i;
+            i = parent;
+        }
+        heap[i] = key;
+        position[key] = i;
+    }
+
+    private void siftDown(int i) {
+        int key = heap[i];
+        double p = priority[key];
+        while (true) {
+            int first = i * ARITY + 1;
+            if (first >= size) break;
+            int last = Math.min(first + ARITY, size);
+            int min = first;
+            for (int c = first + 1; c < last; c++) {
+                if (priority[heap[c]] < priority[heap[min]]) min = c;
+            }
+            if (priority[heap[min]] >= p) break;
+            heap[i] = heap[min];
+            position[heap[i]] = i;
+            i = min;
+        }
+        heap[i] = key;
+        position[key] = i;
+    }
+}
@@ -0,0 +1,144 @@
+package model.pa.dijkstra;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+import model.pa.graph.GraphSnapshot;
+import model.pa.graph.Vertex;
+import model.pa.model.Route;
+
+/**
+ * A* heuristic from precomputed distances to a few landmark vertices (ALT).
+ * By the triangle inequality |d(L, target) - d(L, v)| never exceeds d(v, target) for any landmark L,
+ * so the largest of these differences is a lower bound that only depends on the route distances, not on geography.
+ * Landmarks are picked by farthest-point selection, each one as far as possible from the ones already picked,
+ * which also puts one in every component before a second one goes into any of them.
+ * Distances are kept in one float array per landmark, indexed by snapshot id
+ * @param <V>
+ */
+public class LandmarkHeuristic<V> implements Heuristic<V> {
+    /** Number of landmarks used when none is given */
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    private final GraphSnapshot<V, Route> snapshot;
+    private final int[] landmarks;
+    private final float[][] distances;
+
+    private LandmarkHeuristic(GraphSnapshot<V, Route> snapshot, int[] landmarks, float[][] distances) {
+        this.snapshot = snapshot;
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    /**
+     * Picks the landmarks by farthest-point selection and calculates their distances
+     * @param snapshot the graph
+     * @param count number of landmarks, at most the number of vertices
+     * @return the index
+     */
+    public static <V> LandmarkHeuristic<V> build(GraphSnapshot<V, Route> snapshot, int count) {
+        int n = snapshot.numVertices();
+        count = Math.min(count, n);
+        int[] landmarks = new int[count];
+        float[][] distances = new float[count][];
+        //distance from each vertex to the closest landmark picked so far
+        float[] closest = new float[n];
+        Arrays.fill(closest, Float.POSITIVE_INFINITY);
+        SnapshotDijkstra worker = new SnapshotDijkstra(snapshot);
+
+        //the first landmark is the vertex farthest from vertex 0
+        int next = 0;
+        if (count > 0) next = farthest(distancesFrom(worker, 0, n));
+        for (int i = 0; i < count; i++) {
+            landmarks[i] = next;
+            distances[i] = distancesFrom(worker, next, n);
+            float best = -1;
+            for (int v = 0; v < n; v++) {
+                closest[v] = Math.min(closest[v], distances[i][v]);
+                if (closest[v] > best) {
+                    best = closest[v];
+                    next = v;
+                }
+            }
+        }
+        return new LandmarkHeuristic<>(snapshot, landmarks, distances);
+    }
+
+    /**
+     * Calculates the distances of the given landmarks, one search per landmark in parallel.
+     * Used to rebuild an index after the graph changed without picking the landmarks again
+     * @param snapshot the graph
+     * @param landmarks the landmark vertices, the ones missing from the snapshot are skipped
+     * @return the index
+     */
+    public static <V> LandmarkHeuristic<V> build(GraphSnapshot<V, Route> snapshot, Collection<Vertex<V>> landmarks) {
+        int[] ids = landmarks.stream().mapToInt(snapshot::id).filter(id -> id != -1).distinct().toArray();
+        int n = snapshot.numVertices();
+        float[][] distances = new float[ids.length][];
+        //a worker per search running at the same time, dropped with the queue afterwards
+        Queue<SnapshotDijkstra> workers = new ConcurrentLinkedQueue<>();
+        IntStream.range(0, ids.length).parallel().forEach(i -> {
+            SnapshotDijkstra worker = workers.poll();
+            if (worker == null) worker = new SnapshotDijkstra(snapshot);
+            distances[i] = distancesFrom(worker, ids[i], n);
+            workers.offer(worker);
+        });
+        return new LandmarkHeuristic<>(snapshot, ids, distances);
+    }
+
+    private static float[] distancesFrom(SnapshotDijkstra worker, int source, int n) {
+        worker.run(source);
+        float[] d = new float[n];
+        for (int v = 0; v < n; v++) {
+            double dv = worker.distance(v);
+            d[v] = dv == Double.MAX_VALUE ? Float.POSITIVE_INFINITY : (float) dv;
+        }
+        return d;
+    }
+
+    private static int farthest(float[] d) {
+        int best = 0;
+        for (int v = 0; v < d.length; v++) {
+            if (d[v] > d[best]) best = v;
+        }
+        return best;
+    }
+
+    /**
+     *
+     * @return the graph the distances were calculated on
+     */
+    public GraphSnapshot<V, Route> getSnapshot() { return snapshot; }
+
+    /**
+     *
+     * @return the landmark vertices
+     */
+    public List<Vertex<V>> getLandmarks() {
+        List<Vertex<V>> list = new ArrayList<>(landmarks.length);
+        for (int l : landmarks) list.add(snapshot.vertex(l));
+        return list;
+    }
+
+    @Override
+    public double estimate(Vertex<V> v, Vertex<V> target) {
+        int i = snapshot.id(v);
+        int j = snapshot.id(target);
+        if (i == -1 || j == -1) return 0;
+        double best = 0;
+        for (float[] d : distances) {
+            //a landmark that can't reach both says nothing about them
+            if (d[i] == Float.POSITIVE_INFINITY || d[j] == Float.POSITIVE_INFINITY) continue;
+            best = Math.max(best, Math.abs(d[j] - d[i]));
+        }
+        return best;
+    }
+
+    @Override
+    public String toString() {
+        return "LandmarkHeuristic{" +
+                "landmarks=" + landmarks.length +
+                ", snapshot=" + snapshot +
+                '}';
+    }
+}
@@ -0,0 +1,17 @@
+package model.pa.dijkstra;
+
+/**
+ * Algorithms available to calculate the shortest path between two airports
+ */
+public enum SearchMode {
+    /** Dijkstra's algorithm from the origin, keeping the whole tree of the origin in a cache */
+    DIJKSTRA,
+    /** A* guided by the great-circle distance to the destination */
+    A_STAR,
+    /** A* guided by the distances to a few landmark airports */
+    ALT,
+    /** Dijkstra's algorithm from both airports until the two searches meet */
+    BIDIRECTIONAL,
+    /** Upward searches over a precomputed contraction hierarchy */
+    CONTRACTION_HIERARCHY
+}
@@ -0,0 +1,166 @@
+package model.pa.dijkstra;
+
+import java.util.*;
+import java.util.function.Predicate;
+import model.pa.graph.Vertex;
+
+/**
+ * Least recently used cache of shortest path trees, keyed by source vertex.
+ * When the graph changes only the trees the change can affect are dropped:
+ * a new route only matters to trees where it's a shortcut to one of its ends,
+ * a removed route only to trees that use it, and a removed vertex only to trees that reach it
+ * @param <V>
+ */
+public class ShortestPathCache<V> {
+    /** Number of trees kept when no capacity is given */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final int capacity;
+    private final LinkedHashMap<Vertex<V>, ShortestPathTree<V>> trees;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Constructor
+     */
+    public ShortestPathCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     * @param capacity maximum number of trees kept
+     */
+    public ShortestPathCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+        this.capacity = capacity;
+        this.trees = new LinkedHashMap<Vertex<V>, ShortestPathTree<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Vertex<V>, ShortestPathTree<V>> eldest) {
+                if (size() <= ShortestPathCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     *
+     * @param source a vertex
+     * @return the cached tree rooted at source, or null if there's none
+     */
+    public ShortestPathTree<V> get(Vertex<V> source) {
+        ShortestPathTree<V> tree = trees.get(source);
+        if (tree == null) misses++;
+        else hits++;
+        return tree;
+    }
+
+    /**
+     * Adds a tree, dropping the least recently used one if the cache is full
+     * @param tree the tree
+     */
+    public void put(ShortestPathTree<V> tree) {
+        trees.put(tree.getSource(), tree);
+    }
+
+    /**
+     * Drops the trees in which a new route between u and v shortens the path to u or v
+     * @param u one end of the route
+     * @param v the other end
+     * @param distance distance of the route
+     */
+    public void routeAdded(Vertex<V> u, Vertex<V> v, int distance) {
+        invalidate(tree -> improves(tree, u, v, distance) || improves(tree, v, u, distance));
+    }
+
+    private boolean improves(ShortestPathTree<V> tree, Vertex<V> from, Vertex<V> to, int distance) {
+        double d = tree.getCost(from);
+        return d != Double.MAX_VALUE && d + distance < tree.getCost(to);
+    }
+
+    /**
+     * Drops the trees whose paths go through the route between u and v
+     * @param u one end of the route
+     * @param v the other end
+     */
+    public void routeRemoved(Vertex<V> u, Vertex<V> v) {
+        invalidate(tree -> tree.getPredecessor(v) == u || tree.getPredecessor(u) == v);
+    }
+
+    /**
+     * Drops the trees that reach a vertex, which are the only ones that can use its routes
+     * @param v the removed vertex
+     */
+    public void vertexRemoved(Vertex<V> v) {
+        invalidate(tree -> tree.isReachable(v));
+    }
+
+    /**
+     * Drops every tree
+     */
+    public void clear() {
+        invalidations += trees.size();
+        trees.clear();
+    }
+
+    private void invalidate(Predicate<ShortestPathTree<V>> affected) {
+        Iterator<ShortestPathTree<V>> it = trees.values().iterator();
+        while (it.hasNext()) {
+            if (affected.test(it.next())) {
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     *
+     * @return the number of cached trees
+     */
+    public int size() { return trees.size(); }
+
+    /**
+     *
+     * @return the maximum number of cached trees
+     */
+    public int getCapacity() { return capacity; }
+
+    /**
+     *
+     * @return how many lookups found a tree
+     */
+    public long getHits() { return hits; }
+
+    /**
+     *
+     * @return how many lookups found nothing
+     */
+    public long getMisses() { return misses; }
+
+    /**
+     *
+     * @return how many trees were dropped to make room for others
+     */
+    public long getEvictions() { return evictions; }
+
+    /**
+     *
+     * @return how many trees were dropped because the graph changed
+     */
+    public long getInvalidations() { return invalidations; }
+
+    @Override
+    public String toString() {
+        return "ShortestPathCache{" +
+                "size=" + trees.size() +
+                ", capacity=" + capacity +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", invalidations=" + invalidations +
+                '}';
+    }
+}
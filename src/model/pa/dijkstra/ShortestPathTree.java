@@ -0,0 +1,104 @@
+package model.pa.dijkstra;
+
+import java.util.*;
+import model.pa.graph.Vertex;
+
+/**
+ * Distances and predecessors of every vertex reached by a single source search
+ * @param <V>
+ */
+public class ShortestPathTree<V> {
+    private final Vertex<V> source;
+    private final List<Vertex<V>> vertices;
+    private final Map<Vertex<V>, Integer> ids;
+    private final double[] dist;
+    private final int[] predecessor;
+
+    /**
+     * Constructor, id 0 must be the source
+     * @param vertices the reached vertices, indexed by id
+     * @param ids the id of each reached vertex
+     * @param dist distance from the source, indexed by id
+     * @param predecessor id of the previous vertex in the path, -1 for the source
+     */
+    ShortestPathTree(List<Vertex<V>> vertices, Map<Vertex<V>, Integer> ids, double[] dist, int[] predecessor) {
+        this.source = vertices.get(0);
+        this.vertices = vertices;
+        this.ids = ids;
+        this.dist = dist;
+        this.predecessor = predecessor;
+    }
+
+    /**
+     *
+     * @return the origin of every path in the tree
+     */
+    public Vertex<V> getSource() { return source; }
+
+    /**
+     *
+     * @return the vertices that can be reached from the source, including the source
+     */
+    public List<Vertex<V>> getReachedVertices() { return Collections.unmodifiableList(vertices); }
+
+    /**
+     *
+     * @param v a vertex
+     * @return true if there's a path from the source to v
+     */
+    public boolean isReachable(Vertex<V> v) { return ids.containsKey(v); }
+
+    /**
+     *
+     * @param v a vertex
+     * @return the shortest distance from the source to v, or Double.MAX_VALUE if v can't be reached
+     */
+    public double getCost(Vertex<V> v) {
+        Integer id = ids.get(v);
+        return id == null ? Double.MAX_VALUE : dist[id];
+    }
+
+    /**
+     *
+     * @param v a vertex
+     * @return the previous vertex in the path from the source to v, or null for the source and unreachable vertices
+     */
+    public Vertex<V> getPredecessor(Vertex<V> v) {
+        Integer id = ids.get(v);
+        if (id == null || predecessor[id] == -1) return null;
+        return vertices.get(predecessor[id]);
+    }
+
+    /**
+     *
+     * @param v a vertex
+     * @return the vertices from the source to v, or null if v can't be reached
+     */
+    public List<Vertex<V>> getPath(Vertex<V> v) {
+        Integer id = ids.get(v);
+        if (id == null) return null;
+        List<Vertex<V>> path = new ArrayList<>();
+        for (int i = id; i != -1; i = predecessor[i]) {
+            path.add(vertices.get(i));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     *
+     * @param v a vertex
+     * @return the shortest path from the source to v as a DijkstraConcreteResult
+     */
+    public DijkstraConcreteResult<V> resultTo(Vertex<V> v) {
+        return new DijkstraConcreteResult<>(getCost(v), getPath(v));
+    }
+
+    @Override
+    public String toString() {
+        return "ShortestPathTree{" +
+                "source=" + source +
+                ", reached=" + vertices.size() +
+                '}';
+    }
+}
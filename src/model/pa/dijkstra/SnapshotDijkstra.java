@@ -0,0 +1,129 @@
+package model.pa.dijkstra;
+
+import java.util.*;
+import model.pa.graph.GraphSnapshot;
+import model.pa.graph.InvalidVertexException;
+import model.pa.graph.Vertex;
+
+/**
+ * Dijkstra's algorithm over a GraphSnapshot.
+ * The heap and the distance and predecessor arrays are allocated once and reused by every run,
+ * so one instance should be kept per thread and used for many sources
+ */
+public class SnapshotDijkstra {
+    private final GraphSnapshot<?, ?> snapshot;
+    private final IndexedMinHeap heap;
+    private final double[] dist;
+    private final int[] predecessor;
+    private final int[] settled;
+    private int settledCount;
+
+    /**
+     * Constructor
+     * @param snapshot the graph to search
+     */
+    public SnapshotDijkstra(GraphSnapshot<?, ?> snapshot) {
+        this.snapshot = snapshot;
+        int n = snapshot.numVertices();
+        this.heap = new IndexedMinHeap(n);
+        this.dist = new double[n];
+        this.predecessor = new int[n];
+        this.settled = new int[n];
+    }
+
+    /**
+     * Calculates the shortest paths from a vertex to every vertex it can reach
+     * @param snapshot the graph to search
+     * @param start origin vertex
+     * @return the shortest path tree rooted at start
+     */
+    public static <V> ShortestPathTree<V> shortestPathTree(GraphSnapshot<V, ?> snapshot, Vertex<V> start) {
+        int source = snapshot.id(start);
+        if (source == -1) throw new InvalidVertexException("Vertex is not in the snapshot");
+        SnapshotDijkstra worker = new SnapshotDijkstra(snapshot);
+        worker.run(source);
+
+        //the tree numbers the reached vertices in settling order, so the source gets id 0
+        int reached = worker.settledCount();
+        List<Vertex<V>> vertices = new ArrayList<>(reached);
+        Map<Vertex<V>, Integer> ids = new HashMap<>();
+        int[] treeId = new int[snapshot.numVertices()];
+        double[] dist = new double[reached];
+        int[] predecessor = new int[reached];
+        for (int i = 0; i < reached; i++) {
+            int v = worker.settled(i);
+            treeId[v] = i;
+            vertices.add(snapshot.vertex(v));
+            ids.put(snapshot.vertex(v), i);
+            dist[i] = worker.distance(v);
+            predecessor[i] = worker.predecessor(v) == -1 ? -1 : treeId[worker.predecessor(v)];
+        }
+        return new ShortestPathTree<>(vertices, ids, dist, predecessor);
+    }
+
+    /**
+     * Calculates the shortest distance from the source to every vertex
+     * @param source id of the origin vertex
+     */
+    public void run(int source) {
+        run(source, -1);
+    }
+
+    /**
+     * Calculates shortest distances from the source, stopping once the target is settled
+     * @param source id of the origin vertex
+     * @param target id of the destination vertex, or -1 to settle every reachable vertex
+     */
+    public void run(int source, int target) {
+        Arrays.fill(dist, Double.MAX_VALUE);
+        heap.clear();
+        settledCount = 0;
+
+        dist[source] = 0;
+        predecessor[source] = -1;
+        heap.insertOrDecrease(source, 0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled[settledCount++] = u;
+            if (u == target) return;
+            double du = dist[u];
+            for (int slot = snapshot.offset(u), end = snapshot.offset(u + 1); slot < end; slot++) {
+                int w = snapshot.target(slot);
+                double totalDist = du + snapshot.weight(slot);
+                if (totalDist < dist[w]) {
+                    dist[w] = totalDist;
+                    predecessor[w] = u;
+                    heap.insertOrDecrease(w, totalDist);
+                }
+            }
+        }
+    }
+
+    /**
+     *
+     * @param v a vertex id
+     * @return the distance found by the last run, Double.MAX_VALUE if v wasn't reached
+     */
+    public double distance(int v) { return dist[v]; }
+
+    /**
+     *
+     * @param v a vertex id
+     * @return the previous vertex in the path found by the last run, -1 for the source
+     */
+    public int predecessor(int v) { return predecessor[v]; }
+
+    /**
+     *
+     * @return how many vertices the last run settled
+     */
+    public int settledCount() { return settledCount; }
+
+    /**
+     *
+     * @param i position in the settling order
+     * @return the i-th vertex settled by the last run, in non-decreasing distance
+     */
+    public int settled(int i) { return settled[i]; }
+}
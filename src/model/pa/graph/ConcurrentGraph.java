@@ -0,0 +1,349 @@
+package model.pa.graph;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Thread safe Graph with the same adjacency structure as GraphAdjacencyMatrix, built on ConcurrentHashMaps.
+ * Reads take no lock and see a weakly consistent view while edits are in progress.
+ * Edits that touch edges lock the stripes of both ends, always in the same order so two edits can't deadlock,
+ * which lets edits on unrelated vertices run at the same time
+ * @param <V>
+ * @param <E>
+ */
+public class ConcurrentGraph<V, E> implements Graph<V, E> {
+    private static final int STRIPES = 64;
+
+    private final Map<Vertex<V>, Map<Vertex<V>, Edge<E, V>>> adjacencyMap;
+    private final Map<V, MyVertex> verticesByElement;
+    private final Map<E, MyEdge> edgesByElement;
+    private final ReentrantLock[] locks;
+    private final AtomicInteger nextStripe;
+
+    /**
+     * Constructor of the class
+     */
+    public ConcurrentGraph() {
+        this.adjacencyMap = new ConcurrentHashMap<>();
+        this.verticesByElement = new ConcurrentHashMap<>();
+        this.edgesByElement = new ConcurrentHashMap<>();
+        this.locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) locks[i] = new ReentrantLock();
+        this.nextStripe = new AtomicInteger();
+    }
+
+    /**
+     * Finds a Vertex based on its elements
+     * @param vElement
+     * @return Vertex<V>
+     */
+    public Vertex<V> findVertex(V vElement) {
+        return verticesByElement.get(vElement);
+    }
+
+    /**
+     * Finds an Edge based on its elements
+     * @param eElement
+     * @return Edge<E,V>
+     */
+    public Edge<E, V> findEdge(E eElement) {
+        return edgesByElement.get(eElement);
+    }
+
+    @Override
+    public int numVertices() { return adjacencyMap.size(); }
+
+    @Override
+    public int numEdges() { return edgesByElement.size(); }
+
+    /**
+     * Returns a copy of the Vertices in the Graph
+     * @return Collection<Vertex<V>>
+     */
+    @Override
+    public Collection<Vertex<V>> vertices() {
+        return new ArrayList<>(adjacencyMap.keySet());
+    }
+
+    /**
+     * Returns a read-only, weakly consistent view of the Edges in the Graph
+     * @return Collection<Edge<E, V>>
+     */
+    @Override
+    public Collection<Edge<E, V>> edges() {
+        return Collections.unmodifiableCollection(edgesByElement.values());
+    }
+
+    /**
+     * Returns a copy of the incident Edges of a Vertex
+     * @param v     vertex for which to obtain the incident edges
+     *
+     * @return Collection<Edge<E, V>>
+     * @throws InvalidVertexException
+     */
+    @Override
+    public Collection<Edge<E, V>> incidentEdges(Vertex<V> v) throws InvalidVertexException {
+        return new ArrayList<>(incidence(v).values());
+    }
+
+    @Override
+    public int degree(Vertex<V> v) throws InvalidVertexException {
+        return incidence(v).size();
+    }
+
+    /**
+     * Visits the incident Edges of a Vertex in place. Edges added or removed during the visit may or may not be seen
+     * @param v         vertex whose incident edges are visited
+     * @param action    called with each edge and its opposite vertex
+     * @throws InvalidVertexException
+     */
+    @Override
+    public void forEachIncident(Vertex<V> v, BiConsumer<Edge<E, V>, Vertex<V>> action) throws InvalidVertexException {
+        for (Map.Entry<Vertex<V>, Edge<E, V>> entry : incidence(v).entrySet()) {
+            action.accept(entry.getValue(), entry.getKey());
+        }
+    }
+
+    @Override
+    public Vertex<V> opposite(Vertex<V> v, Edge<E, V> e) throws InvalidVertexException, InvalidEdgeException {
+        checkVertex(v);
+        MyEdge edge = checkEdge(e);
+        if (edge.origin == v) return edge.destination;
+        if (edge.destination == v) return edge.origin;
+        throw new InvalidEdgeException("This edge is not connected to this vertex");
+    }
+
+    @Override
+    public boolean areAdjacent(Vertex<V> u, Vertex<V> v) throws InvalidVertexException {
+        checkVertex(v);
+        return incidence(u).containsKey(v);
+    }
+
+    @Override
+    public Vertex<V> insertVertex(V vElement) throws InvalidVertexException {
+        List<MyVertex> created = new ArrayList<>(1);
+        //the incidence map is in place before the element can be found
+        verticesByElement.computeIfAbsent(vElement, element -> {
+            MyVertex v = new MyVertex(element);
+            adjacencyMap.put(v, new ConcurrentHashMap<>());
+            created.add(v);
+            return v;
+        });
+        if (created.isEmpty()) throw new InvalidVertexException("The vertex already exists");
+        return created.get(0);
+    }
+
+    @Override
+    public Edge<E, V> insertEdge(Vertex<V> u, Vertex<V> v, E edgeElement) throws InvalidVertexException, InvalidEdgeException {
+        MyVertex origin = checkVertex(u);
+        MyVertex destination = checkVertex(v);
+        lock(origin, destination);
+        try {
+            //checked again under the locks, removeVertex marks the vertex before dropping its edges
+            if (origin.removed || destination.removed) throw new InvalidVertexException("Vertex does not belong to this graph.");
+            MyEdge edge = new MyEdge(edgeElement, origin, destination);
+            if (edgesByElement.putIfAbsent(edgeElement, edge) != null) throw new InvalidEdgeException("The edge already exists");
+            //an existing edge between u and v is replaced by the new one
+            Edge<E, V> previous = adjacencyMap.get(origin).put(destination, edge);
+            if (previous != null) edgesByElement.remove(previous.element(), previous);
+            if (origin != destination) adjacencyMap.get(destination).put(origin, edge);
+            return edge;
+        } finally {
+            unlock(origin, destination);
+        }
+    }
+
+    @Override
+    public Edge<E, V> insertEdge(V vElement1, V vElement2, E edgeElement) throws InvalidVertexException, InvalidEdgeException {
+        return insertEdge(findVertex(vElement1), findVertex(vElement2), edgeElement);
+    }
+
+    @Override
+    public V removeVertex(Vertex<V> v) throws InvalidVertexException {
+        MyVertex vertex = checkVertex(v);
+        ReentrantLock lock = locks[vertex.stripe];
+        lock.lock();
+        try {
+            if (vertex.removed) throw new InvalidVertexException("Vertex does not belong to this graph.");
+            vertex.removed = true;
+        } finally {
+            lock.unlock();
+        }
+        //no edge can be added to the vertex anymore, so its incidence map only shrinks from here
+        for (Map.Entry<Vertex<V>, Edge<E, V>> entry : adjacencyMap.get(vertex).entrySet()) {
+            detach((MyEdge) entry.getValue());
+        }
+        adjacencyMap.remove(vertex);
+        verticesByElement.remove(vertex.element, vertex);
+        return vertex.element;
+    }
+
+    @Override
+    public E removeEdge(Edge<E, V> e) throws InvalidEdgeException {
+        MyEdge edge = checkEdge(e);
+        if (!detach(edge)) throw new InvalidEdgeException("Edge does not belong to this graph.");
+        return edge.element;
+    }
+
+    /**
+     * Removes an edge from the registry and from the incidence maps of both ends
+     * @return false if the edge had already been removed
+     */
+    private boolean detach(MyEdge edge) {
+        lock(edge.origin, edge.destination);
+        try {
+            if (!edgesByElement.remove(edge.element, edge)) return false;
+            removeIncidence(edge.origin, edge.destination, edge);
+            removeIncidence(edge.destination, edge.origin, edge);
+            return true;
+        } finally {
+            unlock(edge.origin, edge.destination);
+        }
+    }
+
+    private void removeIncidence(MyVertex from, MyVertex to, MyEdge edge) {
+        Map<Vertex<V>, Edge<E, V>> incidence = adjacencyMap.get(from);
+        if (incidence != null) incidence.remove(to, edge);
+    }
+
+    @Override
+    public V replace(Vertex<V> v, V newElement) throws InvalidVertexException {
+        MyVertex vertex = checkVertex(v);
+        ReentrantLock lock = locks[vertex.stripe];
+        lock.lock();
+        try {
+            if (!newElement.equals(vertex.element) && verticesByElement.putIfAbsent(newElement, vertex) != null) {
+                throw new InvalidVertexException("The vertex already exists");
+            }
+            V old = vertex.element;
+            vertex.element = newElement;
+            if (!newElement.equals(old)) verticesByElement.remove(old, vertex);
+            return old;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E replace(Edge<E, V> e, E newElement) throws InvalidEdgeException {
+        MyEdge edge = checkEdge(e);
+        lock(edge.origin, edge.destination);
+        try {
+            if (edgesByElement.get(edge.element) != edge) throw new InvalidEdgeException("Edge does not belong to this graph.");
+            if (!newElement.equals(edge.element) && edgesByElement.putIfAbsent(newElement, edge) != null) {
+                throw new InvalidEdgeException("The edge already exists");
+            }
+            E old = edge.element;
+            edge.element = newElement;
+            if (!newElement.equals(old)) edgesByElement.remove(old, edge);
+            return old;
+        } finally {
+            unlock(edge.origin, edge.destination);
+        }
+    }
+
+    /**
+     * Locks the stripes of two vertices, lowest stripe first
+     */
+    private void lock(MyVertex u, MyVertex v) {
+        int first = Math.min(u.stripe, v.stripe);
+        int second = Math.max(u.stripe, v.stripe);
+        locks[first].lock();
+        if (second != first) locks[second].lock();
+    }
+
+    private void unlock(MyVertex u, MyVertex v) {
+        int first = Math.min(u.stripe, v.stripe);
+        int second = Math.max(u.stripe, v.stripe);
+        if (second != first) locks[second].unlock();
+        locks[first].unlock();
+    }
+
+    private Map<Vertex<V>, Edge<E, V>> incidence(Vertex<V> v) throws InvalidVertexException {
+        checkVertex(v);
+        Map<Vertex<V>, Edge<E, V>> incidence = adjacencyMap.get(v);
+        //removed by another thread after the check
+        if (incidence == null) throw new InvalidVertexException("Vertex does not belong to this graph.");
+        return incidence;
+    }
+
+    private MyVertex checkVertex(Vertex<V> v) throws InvalidVertexException {
+        if (v == null) throw new InvalidVertexException("Null vertex.");
+        if (!(v instanceof ConcurrentGraph.MyVertex)) throw new InvalidVertexException("Not a vertex.");
+        if (!adjacencyMap.containsKey(v)) throw new InvalidVertexException("Vertex does not belong to this graph.");
+        return (MyVertex) v;
+    }
+
+    private MyEdge checkEdge(Edge<E, V> e) throws InvalidEdgeException {
+        if (e == null) throw new InvalidEdgeException("Null edge.");
+        if (!(e instanceof ConcurrentGraph.MyEdge)) throw new InvalidEdgeException("Not an edge.");
+        MyEdge edge = (MyEdge) e;
+        if (edgesByElement.get(edge.element) != edge) throw new InvalidEdgeException("Edge does not belong to this graph.");
+        return edge;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentGraph{" +
+                "vertices=" + numVertices() +
+                ", edges=" + numEdges() +
+                '}';
+    }
+
+    /**
+     * Class MyVertex
+     */
+    private class MyVertex implements Vertex<V> {
+        private volatile V element;
+        private final int stripe;
+        private volatile boolean removed;
+
+        public MyVertex(V element) {
+            this.element = element;
+            this.stripe = Math.floorMod(nextStripe.getAndIncrement(), STRIPES);
+        }
+
+        @Override
+        public V element() {
+            return element;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Vertex{%s}", element);
+        }
+    }
+
+    /**
+     * Class MyEdge
+     */
+    private class MyEdge implements Edge<E, V> {
+        private volatile E element;
+        private final MyVertex origin;
+        private final MyVertex destination;
+
+        public MyEdge(E element, MyVertex origin, MyVertex destination) {
+            this.element = element;
+            this.origin = origin;
+            this.destination = destination;
+        }
+
+        @Override
+        public E element() {
+            return element;
+        }
+
+        @Override
+        public Vertex<V>[] vertices() {
+            return new Vertex[]{origin, destination};
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Edge{%s}", element);
+        }
+    }
+}
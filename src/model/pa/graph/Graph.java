@@ -24,6 +24,7 @@
 package model.pa.graph;
 
 import java.util.Collection;
+import java.util.function.BiConsumer;
 
 /**
  * A graph is made up of a set of vertices connected by edges, where the edges 
@@ -83,6 +84,42 @@ public interface Graph<V, E> {
     public Collection<Edge<E, V>> incidentEdges(Vertex<V> v)
             throws InvalidVertexException;
 
+    /**
+     * Returns the number of edges incident to vertex <code>v</code>.
+     * 
+     * Implementations should answer without building the collection
+     * of incident edges.
+     * 
+     * @param v     vertex for which to count the incident edges
+     * 
+     * @return      number of incident edges
+     * 
+     * @exception InvalidVertexException    if the vertex is invalid for the graph
+     */
+    public default int degree(Vertex<V> v) throws InvalidVertexException {
+        return incidentEdges(v).size();
+    }
+
+    /**
+     * Visits every edge incident to vertex <code>v</code>, passing the edge
+     * and the vertex at its other end to <code>action</code>.
+     * 
+     * Unlike {@link #incidentEdges(Vertex)}, implementations should visit the
+     * edges in place without copying them, so the graph must not be changed
+     * by <code>action</code>.
+     * 
+     * @param v         vertex whose incident edges are visited
+     * @param action    called once per incident edge with the edge and the opposite vertex
+     * 
+     * @exception InvalidVertexException    if the vertex is invalid for the graph
+     */
+    public default void forEachIncident(Vertex<V> v, BiConsumer<Edge<E, V>, Vertex<V>> action)
+            throws InvalidVertexException {
+        for (Edge<E, V> e : incidentEdges(v)) {
+            action.accept(e, opposite(v, e));
+        }
+    }
+
     /**
      * Given vertex <code>v</code>, return the opposite vertex at the other end
      * of edge <code>e</code>.
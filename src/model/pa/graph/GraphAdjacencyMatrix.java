@@ -3,6 +3,7 @@ import model.pa.model.Airport;
 import model.pa.model.Route;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 
 /**
  * Class GraphAdjacencyMatrix structure of data to represent graph
@@ -12,12 +13,19 @@ import java.util.*;
 public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
 
     private Map< Vertex<V>, Map<Vertex<V>, Edge<E,V>>> adjacencyMap;
+    private Map<V, Vertex<V>> verticesByElement;
+    //every edge of the graph, kept up to date by insertEdge, removeEdge and removeVertex
+    private Set<Edge<E, V>> edges;
+    private Map<E, Edge<E, V>> edgesByElement;
 
     /**
      * Constructor of the class
      */
     public GraphAdjacencyMatrix() {
-        this.adjacencyMap = new HashMap<>();
+        this.adjacencyMap = new LinkedHashMap<>();
+        this.verticesByElement = new HashMap<>();
+        this.edges = new LinkedHashSet<>();
+        this.edgesByElement = new HashMap<>();
     }
 
     /**
@@ -25,7 +33,13 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
      * @param g
      */
     public GraphAdjacencyMatrix(GraphAdjacencyMatrix<V,E> g){
-        adjacencyMap = new HashMap<>(g.adjacencyMap);
+        adjacencyMap = new LinkedHashMap<>();
+        for (Map.Entry<Vertex<V>, Map<Vertex<V>, Edge<E, V>>> entry : g.adjacencyMap.entrySet()) {
+            adjacencyMap.put(entry.getKey(), new LinkedHashMap<>(entry.getValue()));
+        }
+        verticesByElement = new HashMap<>(g.verticesByElement);
+        edges = new LinkedHashSet<>(g.edges);
+        edgesByElement = new HashMap<>(g.edgesByElement);
     }
 
     /**
@@ -34,11 +48,7 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
      * @return Vertex<V>
      */
     public Vertex<V> findVertex(V vElement){
-        for (Vertex<V> v : vertices()){
-            if (v.element().equals(vElement))
-                return v;
-        }
-        return null;
+        return verticesByElement.get(vElement);
     }
 
 
@@ -48,11 +58,7 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
      * @return Edge<E,V>
      */
     public Edge<E , V> findEdge(E eElement){
-        for (Edge<E, V> e : edges()){
-            if (e.element().equals(eElement))
-                return e;
-        }
-        return null;
+        return edgesByElement.get(eElement);
     }
 
     /**
@@ -93,32 +99,24 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
      * @return int
      */
     @Override
-    public int numEdges() { return edges().size(); }
+    public int numEdges() { return edges.size(); }
 
     /**
-     * Returns a collection of all the Vertices in the Graph
+     * Returns a collection of all the Vertices in the Graph, in insertion order
      * @return Collection<Vertex<V>>
      */
     @Override
     public Collection<Vertex<V>> vertices() {
-        return new HashSet<>(adjacencyMap.keySet());
+        return new LinkedHashSet<>(adjacencyMap.keySet());
     }
 
     /**
-     * Returns a collection of all the Edges in the Graph
+     * Returns a read-only view of all the Edges in the Graph
      * @return Collection<Edge<E, V>>
      */
     @Override
     public Collection<Edge<E, V>> edges() {
-        List<Edge<E, V>> edges = new LinkedList<>();
-        for (Map<Vertex<V>, Edge<E, V>> map : adjacencyMap.values()) {
-            for (Edge<E, V> edge : map.values()) {
-                if(!edges.contains(edge)){
-                    edges.add(edge);
-                }
-            }
-        }
-        return edges;
+        return Collections.unmodifiableCollection(edges);
     }
 
     /**
@@ -134,6 +132,33 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
         return new HashSet<>(adjacencyMap.get(v).values());
     }
 
+    /**
+     * Counts the incident Edges of a Vertex without copying them
+     * @param v     vertex for which to count the incident edges
+     *
+     * @return int
+     * @throws InvalidVertexException
+     */
+    @Override
+    public int degree(Vertex<V> v) throws InvalidVertexException {
+        checkVertex(v);
+        return adjacencyMap.get(v).size();
+    }
+
+    /**
+     * Visits the incident Edges of a Vertex in place, with the Vertex at the other end of each one
+     * @param v         vertex whose incident edges are visited
+     * @param action    called with each edge and its opposite vertex
+     * @throws InvalidVertexException
+     */
+    @Override
+    public void forEachIncident(Vertex<V> v, BiConsumer<Edge<E, V>, Vertex<V>> action) throws InvalidVertexException {
+        checkVertex(v);
+        for (Map.Entry<Vertex<V>, Edge<E, V>> entry : adjacencyMap.get(v).entrySet()) {
+            action.accept(entry.getValue(), entry.getKey());
+        }
+    }
+
     /**
      * Returns of a Vertex is isolated
      * @param v
@@ -141,7 +166,7 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
      * @throws InvalidVertexException
      */
     public boolean isIsolated(Vertex<V> v) throws InvalidVertexException{
-        return incidentEdges(v).isEmpty();
+        return degree(v) == 0;
     }
 
     /**
@@ -155,14 +180,14 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
     @Override
     public Vertex<V> opposite(Vertex<V> v, Edge<E, V> e) throws InvalidVertexException, InvalidEdgeException {
         checkVertex(v);
-        checkEdge(e);
-        if(!adjacencyMap.get(v).containsValue(e)){
+        MyEdge edge = checkEdge(e);
+        if(!edge.contains(v)){
             throw new InvalidEdgeException("This edge is not connected to this vertex");
         }
-        if(e.vertices()[0]==v){
-            return e.vertices()[1];
+        if(edge.origin==v){
+            return edge.destination;
         }
-        return e.vertices()[0];
+        return edge.origin;
     }
 
     /**
@@ -177,6 +202,7 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
         if(findVertex(vElement)!=null) throw new InvalidVertexException("The vertex already exists");
         MyVertex v = new MyVertex(vElement);
         adjacencyMap.put(v, new LinkedHashMap<>());
+        verticesByElement.put(vElement, v);
         return v;
     }
 
@@ -194,8 +220,15 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
         checkVertex(u);
         checkVertex(v);
         if (findEdge(edgeElement)!=null) throw new InvalidEdgeException("The edge already exists");
-        MyEdge edge = new MyEdge(edgeElement);
-        adjacencyMap.get(u).put(v, edge);
+        MyEdge edge = new MyEdge(edgeElement, u, v);
+        //an existing edge between u and v is replaced by the new one
+        Edge<E, V> previous = adjacencyMap.get(u).put(v, edge);
+        if (previous != null) {
+            edges.remove(previous);
+            edgesByElement.remove(previous.element());
+        }
+        edges.add(edge);
+        edgesByElement.put(edgeElement, edge);
         if(u==v) return edge;
         adjacencyMap.get(v).put(u, edge);
         return edge;
@@ -226,18 +259,25 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
     @Override
     public V removeVertex(Vertex<V> v) throws InvalidVertexException {
         checkVertex(v);
-        for (Map<Vertex<V>, Edge<E, V>> map : adjacencyMap.values()) {
-            map.remove(v);
-
+        for (Map.Entry<Vertex<V>, Edge<E, V>> entry : adjacencyMap.get(v).entrySet()) {
+            if (entry.getKey() != v) adjacencyMap.get(entry.getKey()).remove(v);
+            edges.remove(entry.getValue());
+            edgesByElement.remove(entry.getValue().element());
         }
         adjacencyMap.remove(v);
+        verticesByElement.remove(v.element());
         return v.element();
     }
 
     /**
      * Clears the graph
      */
-    public void clear(){ adjacencyMap.clear(); }
+    public void clear(){
+        adjacencyMap.clear();
+        verticesByElement.clear();
+        edges.clear();
+        edgesByElement.clear();
+    }
 
     /**
      * Removes an Edge from the graph
@@ -249,9 +289,11 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
     @Override
     public E removeEdge(Edge<E, V> e) throws InvalidEdgeException {
         MyEdge myEdge = checkEdge(e);
-        Vertex<V> origin = myEdge.vertices()[0];
-        Vertex<V> destination = myEdge.vertices()[1];
+        Vertex<V> origin = myEdge.origin;
+        Vertex<V> destination = myEdge.destination;
 
+        edges.remove(myEdge);
+        edgesByElement.remove(myEdge.element);
         adjacencyMap.get(origin).remove(destination, e);
         if (origin==destination) return e.element();
         adjacencyMap.get(destination).remove(origin, e);
@@ -271,7 +313,11 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
     @Override
     public V replace(Vertex<V> v, V newElement) throws InvalidVertexException {
         MyVertex vertex = checkVertex(v);
+        Vertex<V> other = verticesByElement.get(newElement);
+        if (other != null && other != vertex) throw new InvalidVertexException("The vertex already exists");
+        verticesByElement.remove(vertex.element);
         vertex.element = newElement;
+        verticesByElement.put(newElement, vertex);
         return vertex.element;
     }
 
@@ -286,7 +332,11 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
     @Override
     public E replace(Edge<E, V> e, E newElement) throws InvalidEdgeException {
         MyEdge edge = checkEdge(e);
+        Edge<E, V> other = edgesByElement.get(newElement);
+        if (other != null && other != edge) throw new InvalidEdgeException("The edge already exists");
+        edgesByElement.remove(edge.element);
         edge.element = newElement;
+        edgesByElement.put(newElement, edge);
         return edge.element;
     }
 
@@ -320,17 +370,18 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
     public Collection<Vertex<V>> DFS(Vertex<V> vertex) {
         Stack<Vertex<V>> stack = new Stack<>();
         List<Vertex<V>> visited = new ArrayList<>();
+        //constant time lookups, visited keeps the order
+        Set<Vertex<V>> found = new HashSet<>();
 
         visited.add(vertex);
+        found.add(vertex);
         stack.push(vertex);
 
         while(!stack.isEmpty()) {
             Vertex<V> v = stack.pop();
 
-            for(Edge<E,V> e : incidentEdges(v)) {
-                Vertex<V> w = opposite(v, e);
-
-                if(!visited.contains(w)) {
+            for(Vertex<V> w : adjacencyMap.get(v).keySet()) {
+                if(found.add(w)) {
                     visited.add(w);
                     stack.push(w);
                 }
@@ -365,9 +416,22 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
      */
     private class MyEdge implements Edge<E, V> {
         private E element;
+        private final Vertex<V> origin;
+        private final Vertex<V> destination;
 
-        public MyEdge(E element) {
+        public MyEdge(E element, Vertex<V> origin, Vertex<V> destination) {
             this.element = element;
+            this.origin = origin;
+            this.destination = destination;
+        }
+
+        /**
+         * Checks if the Vertex is one of the ends of this Edge
+         * @param v
+         * @return boolean
+         */
+        public boolean contains(Vertex<V> v) {
+            return origin == v || destination == v;
         }
 
         @Override
@@ -381,18 +445,8 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
          */
         @Override
         public Vertex<V>[] vertices() {
-            //if the edge exists, then two existing vertices have the edge
-            //in their incidentEdges lists
-            for(Vertex<V> v : GraphAdjacencyMatrix.this.adjacencyMap.keySet()) {
-
-                for (Map.Entry<Vertex<V>, Edge<E, V>> entry : adjacencyMap.get(v).entrySet()) {
-                    if( entry.getValue().equals( this )) {
-                        return new Vertex[]{v, entry.getKey()};
-                    }
-                }
-            }
-
-            return new Vertex[]{null, null}; //edge was removed from the graph
+            //the ends are stored on insertion, so no need to search the map
+            return new Vertex[]{origin, destination};
         }
 
         @Override
@@ -429,7 +483,7 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
             throw new InvalidVertexException("Not an edge.");
         }
 
-        if (!edges().contains(edge)) {
+        if (!edges.contains(edge)) {
             throw new InvalidEdgeException("Edge does not belong to this graph.");
         }
 
@@ -443,11 +497,7 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
      * @throws InvalidVertexException
      */
     public boolean existsVertexWith(V vElement) throws InvalidVertexException{
-        MyVertex vertex = new MyVertex(vElement);
-        for(Vertex<V> v : vertices()){
-            if(v.element().equals(vertex.element)) return true;
-        }
-        return false;
+        return verticesByElement.containsKey(vElement);
     }
 
     /**
@@ -456,13 +506,7 @@ public class GraphAdjacencyMatrix<V, E> implements Graph<V, E> {
      * @return boolean
      */
     public boolean existsEdgeWith(E eElement) {
-        MyEdge edge = new MyEdge(eElement);
-        for(Edge<E, V> e : edges()){
-            if(e.element().equals(edge.element)){
-                return true;
-            }
-        }
-        return false;
+        return edgesByElement.containsKey(eElement);
     }
 
     @Override
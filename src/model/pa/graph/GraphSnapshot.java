@@ -0,0 +1,174 @@
+package model.pa.graph;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable int-indexed copy of a graph.
+ * Vertices get ids from 0 to numVertices() - 1 and the incident edges of vertex i are stored
+ * in the slots from offset(i) to offset(i + 1) - 1, each slot holding the opposite vertex, the edge weight
+ * and the original edge. Since nothing changes after creation, it can be read by many threads at once
+ * @param <V>
+ * @param <E>
+ */
+public final class GraphSnapshot<V, E> {
+    private final List<Vertex<V>> vertices;
+    private final Map<Vertex<V>, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final List<Edge<E, V>> edges;
+    private final int numEdges;
+
+    private GraphSnapshot(List<Vertex<V>> vertices, Map<Vertex<V>, Integer> ids, int[] offsets, int[] targets,
+                          int[] weights, List<Edge<E, V>> edges, int numEdges) {
+        this.vertices = vertices;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.edges = edges;
+        this.numEdges = numEdges;
+    }
+
+    /**
+     * Copies the current state of a graph
+     * @param graph the graph to copy
+     * @param weight gives the weight of each edge element
+     * @return the snapshot
+     */
+    public static <V, E> GraphSnapshot<V, E> of(Graph<V, E> graph, ToIntFunction<E> weight) {
+        List<Vertex<V>> vertices = new ArrayList<>(graph.vertices());
+        Map<Vertex<V>, Integer> ids = new HashMap<>();
+        for (int i = 0; i < vertices.size(); i++) {
+            ids.put(vertices.get(i), i);
+        }
+
+        int[] offsets = new int[vertices.size() + 1];
+        for (int i = 0; i < vertices.size(); i++) {
+            offsets[i + 1] = offsets[i] + graph.degree(vertices.get(i));
+        }
+
+        int slots = offsets[vertices.size()];
+        int[] targets = new int[slots];
+        int[] weights = new int[slots];
+        List<Edge<E, V>> edges = new ArrayList<>(slots);
+        for (Vertex<V> v : vertices) {
+            graph.forEachIncident(v, (e, opposite) -> {
+                targets[edges.size()] = ids.get(opposite);
+                weights[edges.size()] = weight.applyAsInt(e.element());
+                edges.add(e);
+            });
+        }
+        return new GraphSnapshot<>(Collections.unmodifiableList(vertices), Collections.unmodifiableMap(ids),
+                offsets, targets, weights, Collections.unmodifiableList(edges), graph.numEdges());
+    }
+
+    /**
+     *
+     * @return the number of vertices
+     */
+    public int numVertices() { return vertices.size(); }
+
+    /**
+     *
+     * @return the number of edges
+     */
+    public int numEdges() { return numEdges; }
+
+    /**
+     *
+     * @param v a vertex of the original graph
+     * @return the id of the vertex, or -1 if it wasn't in the graph
+     */
+    public int id(Vertex<V> v) {
+        Integer id = ids.get(v);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     *
+     * @param id a vertex id
+     * @return the vertex of the original graph with that id
+     */
+    public Vertex<V> vertex(int id) { return vertices.get(id); }
+
+    /**
+     *
+     * @return the vertices of the original graph, indexed by id
+     */
+    public List<Vertex<V>> vertices() { return vertices; }
+
+    /**
+     *
+     * @param id a vertex id
+     * @return the number of incident edges of the vertex
+     */
+    public int degree(int id) { return offsets[id + 1] - offsets[id]; }
+
+    /**
+     *
+     * @param id a vertex id, or numVertices() for the end of the last vertex
+     * @return the first slot of the vertex's incident edges
+     */
+    public int offset(int id) { return offsets[id]; }
+
+    /**
+     *
+     * @param slot an incident edge slot
+     * @return the id of the vertex at the other end of the edge
+     */
+    public int target(int slot) { return targets[slot]; }
+
+    /**
+     *
+     * @param slot an incident edge slot
+     * @return the weight of the edge
+     */
+    public int weight(int slot) { return weights[slot]; }
+
+    /**
+     *
+     * @param slot an incident edge slot
+     * @return the edge of the original graph
+     */
+    public Edge<E, V> edge(int slot) { return edges.get(slot); }
+
+    /**
+     * Travels the snapshot in depth order
+     * @param vertex the starting vertex
+     * @return the vertices reached, in the order they were found
+     */
+    public List<Vertex<V>> DFS(Vertex<V> vertex) {
+        int source = id(vertex);
+        if (source == -1) throw new InvalidVertexException("Vertex is not in the snapshot");
+        boolean[] visited = new boolean[vertices.size()];
+        int[] stack = new int[vertices.size()];
+        int top = 0;
+        List<Vertex<V>> found = new ArrayList<>();
+
+        visited[source] = true;
+        found.add(vertices.get(source));
+        stack[top++] = source;
+        while (top > 0) {
+            int v = stack[--top];
+            for (int slot = offsets[v]; slot < offsets[v + 1]; slot++) {
+                int w = targets[slot];
+                if (!visited[w]) {
+                    visited[w] = true;
+                    found.add(vertices.get(w));
+                    stack[top++] = w;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public String toString() {
+        return "GraphSnapshot{" +
+                "vertices=" + vertices.size() +
+                ", edges=" + numEdges +
+                '}';
+    }
+}
@@ -0,0 +1,338 @@
+package model.pa.graph;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Graph with the adjacency structure of GraphAdjacencyMatrix, kept in PersistentMaps.
+ * Every edit builds new versions of the maps in O(log n), sharing everything it doesn't touch with the
+ * previous ones, so snapshot() costs O(1) and many undo states take little more memory than their edits.
+ * vertices(), edges() and incidentEdges() are views of the version current when they were called, so they
+ * stay valid while the graph is edited.
+ * Like GraphAdjacencyMatrix, vertices() and edges() follow insertion order: every vertex and edge gets the next number
+ * of the graph, the sorted lists are built once per version, and the vertices hash by their number, so the
+ * incidence maps iterate in the same order on every run.
+ * Vertices and edges are shared by all the snapshots that contain them: replacing an element is seen by all of them
+ * @param <V>
+ * @param <E>
+ */
+public class PersistentGraph<V, E> implements Graph<V, E> {
+    private PersistentMap<Vertex<V>, PersistentMap<Vertex<V>, Edge<E, V>>> adjacencyMap;
+    private PersistentMap<V, Vertex<V>> verticesByElement;
+    private PersistentMap<E, Edge<E, V>> edgesByElement;
+    //number of the next vertex or edge inserted
+    private long nextNumber;
+    //vertices and edges in insertion order, of the version they were sorted for
+    private volatile Ordered<Vertex<V>> orderedVertices;
+    private volatile Ordered<Edge<E, V>> orderedEdges;
+
+    /**
+     * Constructor of the class
+     */
+    public PersistentGraph() {
+        this(PersistentMap.empty(), PersistentMap.empty(), PersistentMap.empty(), 0);
+    }
+
+    private PersistentGraph(PersistentMap<Vertex<V>, PersistentMap<Vertex<V>, Edge<E, V>>> adjacencyMap,
+                            PersistentMap<V, Vertex<V>> verticesByElement, PersistentMap<E, Edge<E, V>> edgesByElement,
+                            long nextNumber) {
+        this.adjacencyMap = adjacencyMap;
+        this.verticesByElement = verticesByElement;
+        this.edgesByElement = edgesByElement;
+        this.nextNumber = nextNumber;
+    }
+
+    /**
+     * Returns an independent copy of the current state of the graph, in O(1).
+     * Later edits to either graph are not seen by the other
+     * @return PersistentGraph<V, E>
+     */
+    public PersistentGraph<V, E> snapshot() {
+        return new PersistentGraph<>(adjacencyMap, verticesByElement, edgesByElement, nextNumber);
+    }
+
+    /**
+     * Finds a Vertex based on its elements
+     * @param vElement
+     * @return Vertex<V>
+     */
+    public Vertex<V> findVertex(V vElement) {
+        return verticesByElement.get(vElement);
+    }
+
+    /**
+     * Finds an Edge based on its elements
+     * @param eElement
+     * @return Edge<E,V>
+     */
+    public Edge<E, V> findEdge(E eElement) {
+        return edgesByElement.get(eElement);
+    }
+
+    @Override
+    public int numVertices() { return adjacencyMap.size(); }
+
+    @Override
+    public int numEdges() { return edgesByElement.size(); }
+
+    @Override
+    public Collection<Vertex<V>> vertices() {
+        PersistentMap<Vertex<V>, PersistentMap<Vertex<V>, Edge<E, V>>> version = adjacencyMap;
+        Ordered<Vertex<V>> ordered = orderedVertices;
+        if (ordered == null || ordered.version != version) {
+            ordered = new Ordered<>(version, version.keys(), v -> ((MyVertex<V>) v).number, version::containsKey);
+            orderedVertices = ordered;
+        }
+        return ordered;
+    }
+
+    @Override
+    public Collection<Edge<E, V>> edges() {
+        PersistentMap<E, Edge<E, V>> version = edgesByElement;
+        Ordered<Edge<E, V>> ordered = orderedEdges;
+        if (ordered == null || ordered.version != version) {
+            ordered = new Ordered<>(version, version.values(), e -> ((MyEdge<E, V>) e).number,
+                    o -> o instanceof Edge && version.get(((Edge<?, ?>) o).element()) == o);
+            orderedEdges = ordered;
+        }
+        return ordered;
+    }
+
+    @Override
+    public Collection<Edge<E, V>> incidentEdges(Vertex<V> v) throws InvalidVertexException {
+        return incidence(v).values();
+    }
+
+    @Override
+    public int degree(Vertex<V> v) throws InvalidVertexException {
+        return incidence(v).size();
+    }
+
+    @Override
+    public void forEachIncident(Vertex<V> v, BiConsumer<Edge<E, V>, Vertex<V>> action) throws InvalidVertexException {
+        for (Map.Entry<Vertex<V>, Edge<E, V>> entry : incidence(v)) {
+            action.accept(entry.getValue(), entry.getKey());
+        }
+    }
+
+    @Override
+    public Vertex<V> opposite(Vertex<V> v, Edge<E, V> e) throws InvalidVertexException, InvalidEdgeException {
+        checkVertex(v);
+        MyEdge<E, V> edge = checkEdge(e);
+        if (edge.origin == v) return edge.destination;
+        if (edge.destination == v) return edge.origin;
+        throw new InvalidEdgeException("This edge is not connected to this vertex");
+    }
+
+    @Override
+    public boolean areAdjacent(Vertex<V> u, Vertex<V> v) throws InvalidVertexException {
+        checkVertex(v);
+        return incidence(u).containsKey(v);
+    }
+
+    @Override
+    public Vertex<V> insertVertex(V vElement) throws InvalidVertexException {
+        if (verticesByElement.containsKey(vElement)) throw new InvalidVertexException("The vertex already exists");
+        MyVertex<V> v = new MyVertex<>(vElement, nextNumber++);
+        adjacencyMap = adjacencyMap.plus(v, PersistentMap.empty());
+        verticesByElement = verticesByElement.plus(vElement, v);
+        return v;
+    }
+
+    @Override
+    public Edge<E, V> insertEdge(Vertex<V> u, Vertex<V> v, E edgeElement) throws InvalidVertexException, InvalidEdgeException {
+        checkVertex(u);
+        checkVertex(v);
+        if (edgesByElement.containsKey(edgeElement)) throw new InvalidEdgeException("The edge already exists");
+        MyEdge<E, V> edge = new MyEdge<>(edgeElement, u, v, nextNumber++);
+        //an existing edge between u and v is replaced by the new one
+        Edge<E, V> previous = adjacencyMap.get(u).get(v);
+        if (previous != null) edgesByElement = edgesByElement.minus(previous.element());
+        edgesByElement = edgesByElement.plus(edgeElement, edge);
+        adjacencyMap = adjacencyMap.plus(u, adjacencyMap.get(u).plus(v, edge));
+        if (u != v) adjacencyMap = adjacencyMap.plus(v, adjacencyMap.get(v).plus(u, edge));
+        return edge;
+    }
+
+    @Override
+    public Edge<E, V> insertEdge(V vElement1, V vElement2, E edgeElement) throws InvalidVertexException, InvalidEdgeException {
+        return insertEdge(findVertex(vElement1), findVertex(vElement2), edgeElement);
+    }
+
+    @Override
+    public V removeVertex(Vertex<V> v) throws InvalidVertexException {
+        for (Map.Entry<Vertex<V>, Edge<E, V>> entry : incidence(v)) {
+            Vertex<V> w = entry.getKey();
+            if (w != v) adjacencyMap = adjacencyMap.plus(w, adjacencyMap.get(w).minus(v));
+            edgesByElement = edgesByElement.minus(entry.getValue().element());
+        }
+        adjacencyMap = adjacencyMap.minus(v);
+        verticesByElement = verticesByElement.minus(v.element());
+        return v.element();
+    }
+
+    @Override
+    public E removeEdge(Edge<E, V> e) throws InvalidEdgeException {
+        MyEdge<E, V> edge = checkEdge(e);
+        edgesByElement = edgesByElement.minus(edge.element);
+        adjacencyMap = adjacencyMap.plus(edge.origin, adjacencyMap.get(edge.origin).minus(edge.destination));
+        if (edge.origin != edge.destination) {
+            adjacencyMap = adjacencyMap.plus(edge.destination, adjacencyMap.get(edge.destination).minus(edge.origin));
+        }
+        return edge.element;
+    }
+
+    /**
+     * Clears the graph, snapshots taken before keep their contents
+     */
+    public void clear() {
+        adjacencyMap = PersistentMap.empty();
+        verticesByElement = PersistentMap.empty();
+        edgesByElement = PersistentMap.empty();
+    }
+
+    @Override
+    public V replace(Vertex<V> v, V newElement) throws InvalidVertexException {
+        checkVertex(v);
+        Vertex<V> other = verticesByElement.get(newElement);
+        if (other != null && other != v) throw new InvalidVertexException("The vertex already exists");
+        MyVertex<V> vertex = (MyVertex<V>) v;
+        V old = vertex.element;
+        verticesByElement = verticesByElement.minus(old).plus(newElement, vertex);
+        vertex.element = newElement;
+        return old;
+    }
+
+    @Override
+    public E replace(Edge<E, V> e, E newElement) throws InvalidEdgeException {
+        MyEdge<E, V> edge = checkEdge(e);
+        Edge<E, V> other = edgesByElement.get(newElement);
+        if (other != null && other != edge) throw new InvalidEdgeException("The edge already exists");
+        E old = edge.element;
+        edgesByElement = edgesByElement.minus(old).plus(newElement, edge);
+        edge.element = newElement;
+        return old;
+    }
+
+    private PersistentMap<Vertex<V>, Edge<E, V>> incidence(Vertex<V> v) throws InvalidVertexException {
+        checkVertex(v);
+        return adjacencyMap.get(v);
+    }
+
+    private void checkVertex(Vertex<V> v) throws InvalidVertexException {
+        if (v == null) throw new InvalidVertexException("Null vertex.");
+        if (!(v instanceof MyVertex)) throw new InvalidVertexException("Not a vertex.");
+        if (!adjacencyMap.containsKey(v)) throw new InvalidVertexException("Vertex does not belong to this graph.");
+    }
+
+    private MyEdge<E, V> checkEdge(Edge<E, V> e) throws InvalidEdgeException {
+        if (e == null) throw new InvalidEdgeException("Null edge.");
+        if (!(e instanceof MyEdge)) throw new InvalidEdgeException("Not an edge.");
+        if (edgesByElement.get(e.element()) != e) throw new InvalidEdgeException("Edge does not belong to this graph.");
+        return (MyEdge<E, V>) e;
+    }
+
+    @Override
+    public String toString() {
+        return "PersistentGraph{" +
+                "vertices=" + numVertices() +
+                ", edges=" + numEdges() +
+                '}';
+    }
+
+    /**
+     * Vertices or edges of one version of the graph, sorted by insertion number
+     */
+    private static final class Ordered<T> extends AbstractCollection<T> {
+        private final Object version;
+        private final Object[] items;
+        private final Predicate<Object> contains;
+
+        Ordered(Object version, Collection<T> items, ToLongFunction<T> number,
+                Predicate<Object> contains) {
+            List<T> list = new ArrayList<>(items);
+            list.sort(Comparator.comparingLong(number));
+            this.version = version;
+            this.items = list.toArray();
+            this.contains = contains;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Iterator<T> iterator() {
+            return (Iterator<T>) Arrays.asList(items).iterator();
+        }
+
+        @Override
+        public boolean contains(Object o) { return contains.test(o); }
+
+        @Override
+        public int size() { return items.length; }
+    }
+
+    /**
+     * Class MyVertex, static so that snapshots don't keep the graphs they came from alive
+     */
+    private static class MyVertex<V> implements Vertex<V> {
+        private V element;
+        private final long number;
+
+        public MyVertex(V element, long number) {
+            this.element = element;
+            this.number = number;
+        }
+
+        @Override
+        public V element() {
+            return element;
+        }
+
+        /**
+         * Hash of the insertion number instead of the identity, so the maps keyed by vertices iterate the same way
+         * on every run. Equality is still identity
+         */
+        @Override
+        public int hashCode() {
+            return Long.hashCode(number * 0x9E3779B97F4A7C15L);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Vertex{%s}", element);
+        }
+    }
+
+    /**
+     * Class MyEdge
+     */
+    private static class MyEdge<E, V> implements Edge<E, V> {
+        private E element;
+        private final Vertex<V> origin;
+        private final Vertex<V> destination;
+        private final long number;
+
+        public MyEdge(E element, Vertex<V> origin, Vertex<V> destination, long number) {
+            this.element = element;
+            this.origin = origin;
+            this.destination = destination;
+            this.number = number;
+        }
+
+        @Override
+        public E element() {
+            return element;
+        }
+
+        @Override
+        public Vertex<V>[] vertices() {
+            return new Vertex[]{origin, destination};
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Edge{%s}", element);
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package model.pa.graph;
+
+import java.util.*;
+
+/**
+ * Immutable map stored as a hash array mapped trie.
+ * Every level of the trie uses 5 bits of the key's hash to pick one of up to 32 children, and only the
+ * children that exist are stored, packed in an array indexed through a 32 bit bitmap. plus and minus copy
+ * just the path from the root to the changed entry, O(log32 n) nodes, and share the rest with the original,
+ * so every version stays valid and can be read by any thread
+ * @param <K>
+ * @param <V>
+ */
+public final class PersistentMap<K, V> implements Iterable<Map.Entry<K, V>> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+    private final BitmapNode root;
+    private final int size;
+
+    private PersistentMap(BitmapNode root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     *
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     *
+     * @return the number of entries
+     */
+    public int size() { return size; }
+
+    /**
+     *
+     * @return true if there are no entries
+     */
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     *
+     * @param key a key
+     * @return the value of the key, or null if it isn't in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (root == null) return null;
+        Leaf leaf = root.find(hash(key), key, 0);
+        return leaf == null ? null : (V) leaf.getValue();
+    }
+
+    /**
+     *
+     * @param key a key
+     * @return true if the key is in the map
+     */
+    public boolean containsKey(Object key) {
+        return root != null && root.find(hash(key), key, 0) != null;
+    }
+
+    /**
+     * Adds an entry, replacing the value of the key if it was already in the map
+     * @param key the key
+     * @param value the value
+     * @return the new version of the map, or this one if nothing changed
+     */
+    public PersistentMap<K, V> plus(K key, V value) {
+        Leaf leaf = new Leaf(hash(key), key, value);
+        boolean[] added = new boolean[1];
+        BitmapNode newRoot = root == null ? BitmapNode.of(leaf, 0) : root.put(leaf, 0, added);
+        if (root == null) added[0] = true;
+        if (newRoot == root) return this;
+        return new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Removes a key
+     * @param key the key
+     * @return the new version of the map, or this one if the key wasn't in the map
+     */
+    public PersistentMap<K, V> minus(Object key) {
+        if (root == null) return this;
+        Object newRoot = root.remove(hash(key), key, 0);
+        if (newRoot == root) return this;
+        return newRoot == null ? empty() : new PersistentMap<>((BitmapNode) newRoot, size - 1);
+    }
+
+    /**
+     *
+     * @return a read-only view of the keys of this version
+     */
+    public Collection<K> keys() {
+        return new AbstractCollection<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                Iterator<Map.Entry<K, V>> it = PersistentMap.this.iterator();
+                return new Iterator<K>() {
+                    @Override
+                    public boolean hasNext() { return it.hasNext(); }
+
+                    @Override
+                    public K next() { return it.next().getKey(); }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) { return containsKey(o); }
+
+            @Override
+            public int size() { return size; }
+        };
+    }
+
+    /**
+     *
+     * @return a read-only view of the values of this version
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                Iterator<Map.Entry<K, V>> it = PersistentMap.this.iterator();
+                return new Iterator<V>() {
+                    @Override
+                    public boolean hasNext() { return it.hasNext(); }
+
+                    @Override
+                    public V next() { return it.next().getValue(); }
+                };
+            }
+
+            @Override
+            public int size() { return size; }
+        };
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<>(root);
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int index(int hash, int shift) {
+        return (hash >>> shift) & MASK;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "{", "}");
+        for (Map.Entry<K, V> entry : this) sj.add(entry.getKey() + "=" + entry.getValue());
+        return sj.toString();
+    }
+
+    /**
+     * One key and value, with the key's hash
+     */
+    private static final class Leaf extends AbstractMap.SimpleImmutableEntry<Object, Object> {
+        final int hash;
+
+        Leaf(int hash, Object key, Object value) {
+            super(key, value);
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Node with up to 32 children, each one a Leaf, a BitmapNode or a CollisionNode
+     */
+    private static final class BitmapNode {
+        final int bitmap;
+        final Object[] children;
+
+        BitmapNode(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        static BitmapNode of(Leaf leaf, int shift) {
+            return new BitmapNode(1 << index(leaf.hash, shift), new Object[]{leaf});
+        }
+
+        /**
+         * Builds the node that separates two children with different hashes
+         */
+        static BitmapNode split(Object a, int hashA, Object b, int hashB, int shift) {
+            int ia = index(hashA, shift);
+            int ib = index(hashB, shift);
+            if (ia == ib) return new BitmapNode(1 << ia, new Object[]{split(a, hashA, b, hashB, shift + BITS)});
+            return new BitmapNode((1 << ia) | (1 << ib), ia < ib ? new Object[]{a, b} : new Object[]{b, a});
+        }
+
+        private int position(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        Leaf find(int hash, Object key, int shift) {
+            int bit = 1 << index(hash, shift);
+            if ((bitmap & bit) == 0) return null;
+            Object child = children[position(bit)];
+            if (child instanceof Leaf) {
+                Leaf leaf = (Leaf) child;
+                return leaf.hash == hash && leaf.getKey().equals(key) ? leaf : null;
+            }
+            if (child instanceof BitmapNode) return ((BitmapNode) child).find(hash, key, shift + BITS);
+            return ((CollisionNode) child).find(hash, key);
+        }
+
+        BitmapNode put(Leaf leaf, int shift, boolean[] added) {
+            int bit = 1 << index(leaf.hash, shift);
+            int pos = position(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[children.length + 1];
+                System.arraycopy(children, 0, copy, 0, pos);
+                copy[pos] = leaf;
+                System.arraycopy(children, pos, copy, pos + 1, children.length - pos);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+
+            Object child = children[pos];
+            Object replacement;
+            if (child instanceof Leaf) {
+                Leaf existing = (Leaf) child;
+                if (existing.hash == leaf.hash && existing.getKey().equals(leaf.getKey())) {
+                    if (existing.getValue() == leaf.getValue()) return this;
+                    replacement = leaf;
+                } else {
+                    added[0] = true;
+                    replacement = existing.hash == leaf.hash
+                            ? new CollisionNode(leaf.hash, new Leaf[]{existing, leaf})
+                            : split(existing, existing.hash, leaf, leaf.hash, shift + BITS);
+                }
+            } else if (child instanceof BitmapNode) {
+                replacement = ((BitmapNode) child).put(leaf, shift + BITS, added);
+            } else {
+                CollisionNode collision = (CollisionNode) child;
+                if (collision.hash == leaf.hash) {
+                    replacement = collision.put(leaf, added);
+                } else {
+                    added[0] = true;
+                    replacement = split(collision, collision.hash, leaf, leaf.hash, shift + BITS);
+                }
+            }
+            if (replacement == child) return this;
+            Object[] copy = children.clone();
+            copy[pos] = replacement;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        /**
+         * @return this node if the key wasn't found, null if the node is left empty, otherwise the new node
+         */
+        Object remove(int hash, Object key, int shift) {
+            int bit = 1 << index(hash, shift);
+            if ((bitmap & bit) == 0) return this;
+            int pos = position(bit);
+            Object child = children[pos];
+            Object replacement;
+            if (child instanceof Leaf) {
+                Leaf leaf = (Leaf) child;
+                if (leaf.hash != hash || !leaf.getKey().equals(key)) return this;
+                replacement = null;
+            } else if (child instanceof BitmapNode) {
+                replacement = ((BitmapNode) child).remove(hash, key, shift + BITS);
+            } else {
+                replacement = ((CollisionNode) child).remove(hash, key);
+            }
+            if (replacement == child) return this;
+
+            if (replacement == null) {
+                if (children.length == 1) return null;
+                Object[] copy = new Object[children.length - 1];
+                System.arraycopy(children, 0, copy, 0, pos);
+                System.arraycopy(children, pos + 1, copy, pos, children.length - pos - 1);
+                return new BitmapNode(bitmap & ~bit, copy);
+            }
+            //a sub node left with a single leaf is pulled up, so the trie stays as shallow as the keys allow
+            if (replacement instanceof BitmapNode) {
+                BitmapNode node = (BitmapNode) replacement;
+                if (node.children.length == 1 && node.children[0] instanceof Leaf) replacement = node.children[0];
+            }
+            Object[] copy = children.clone();
+            copy[pos] = replacement;
+            return new BitmapNode(bitmap, copy);
+        }
+    }
+
+    /**
+     * Leaves whose keys have the same hash
+     */
+    private static final class CollisionNode {
+        final int hash;
+        final Leaf[] leaves;
+
+        CollisionNode(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        Leaf find(int hash, Object key) {
+            if (hash != this.hash) return null;
+            for (Leaf leaf : leaves) {
+                if (leaf.getKey().equals(key)) return leaf;
+            }
+            return null;
+        }
+
+        CollisionNode put(Leaf leaf, boolean[] added) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].getKey().equals(leaf.getKey())) {
+                    if (leaves[i].getValue() == leaf.getValue()) return this;
+                    Leaf[] copy = leaves.clone();
+                    copy[i] = leaf;
+                    return new CollisionNode(hash, copy);
+                }
+            }
+            Leaf[] copy = Arrays.copyOf(leaves, leaves.length + 1);
+            copy[leaves.length] = leaf;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+
+        /**
+         * @return this node if the key wasn't found, the remaining leaf if only one is left, otherwise the new node
+         */
+        Object remove(int hash, Object key) {
+            if (hash != this.hash) return this;
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].getKey().equals(key)) {
+                    if (leaves.length == 2) return leaves[1 - i];
+                    Leaf[] copy = new Leaf[leaves.length - 1];
+                    System.arraycopy(leaves, 0, copy, 0, i);
+                    System.arraycopy(leaves, i + 1, copy, i, leaves.length - i - 1);
+                    return new CollisionNode(hash, copy);
+                }
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Depth first walk over the trie, keeping the path in two small arrays
+     */
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Object[][] arrays = new Object[(32 + BITS - 1) / BITS + 2][];
+        private final int[] positions = new int[arrays.length];
+        private int depth = -1;
+        private Leaf next;
+
+        EntryIterator(BitmapNode root) {
+            if (root != null) push(root.children);
+            advance();
+        }
+
+        private void push(Object[] array) {
+            arrays[++depth] = array;
+            positions[depth] = 0;
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                if (positions[depth] == arrays[depth].length) {
+                    depth--;
+                    continue;
+                }
+                Object child = arrays[depth][positions[depth]++];
+                if (child instanceof Leaf) {
+                    next = (Leaf) child;
+                    return;
+                }
+                push(child instanceof BitmapNode ? ((BitmapNode) child).children : ((CollisionNode) child).leaves);
+            }
+        }
+
+        @Override
+        public boolean hasNext() { return next != null; }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (next == null) throw new NoSuchElementException();
+            Leaf leaf = next;
+            advance();
+            return (Map.Entry<K, V>) (Map.Entry<?, ?>) leaf;
+        }
+    }
+}
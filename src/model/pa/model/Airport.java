@@ -6,6 +6,8 @@ import com.brunomnsilva.smartgraph.graphview.SmartLabelSource;
  * This class represents the Airport
  */
 public class Airport implements Comparable<Airport>{
+    private static final double EARTH_RADIUS = 6371;
+
     private String name;
     private String abreviation;
     private Weight weight;
@@ -125,6 +127,54 @@ public class Airport implements Comparable<Airport>{
         return weight;
     }
 
+    /**
+     *
+     * @return true if the latitude, longitude and altitude of the airport are known
+     */
+    public boolean hasCoordinates() {
+        return weight != null;
+    }
+
+    /**
+     *
+     * @return the latitude of the airport in degrees, or NaN if it isn't known
+     */
+    public double getLatitude() {
+        return weight == null ? Double.NaN : weight.latitude;
+    }
+
+    /**
+     *
+     * @return the longitude of the airport in degrees, or NaN if it isn't known
+     */
+    public double getLongitude() {
+        return weight == null ? Double.NaN : weight.longitude;
+    }
+
+    /**
+     *
+     * @return the altitude of the airport, or 0 if it isn't known
+     */
+    public int getAltitude() {
+        return weight == null ? 0 : weight.altitude;
+    }
+
+    /**
+     * Calculates the great-circle distance to another airport with the haversine formula
+     * @param o the other airport
+     * @return the distance in Km, or NaN if the coordinates of one of the airports aren't known
+     */
+    public double distanceTo(Airport o) {
+        if (!hasCoordinates() || !o.hasCoordinates()) return Double.NaN;
+        double lat1 = Math.toRadians(getLatitude());
+        double lat2 = Math.toRadians(o.getLatitude());
+        double dLat = lat2 - lat1;
+        double dLong = Math.toRadians(o.getLongitude() - getLongitude());
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLong / 2) * Math.sin(dLong / 2);
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
     /**
      *
      * @return the name of the airport
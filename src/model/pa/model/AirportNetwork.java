@@ -1,13 +1,32 @@
 package model.pa.model;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 
+import model.pa.analytics.BetweennessCentrality;
+import model.pa.analytics.ClosenessCentrality;
+import model.pa.analytics.PageRank;
 import model.pa.dataLoader.DatasetLoader;
+import model.pa.dataLoader.NetworkJournal;
+import model.pa.dataLoader.NetworkSnapshotFile;
+import model.pa.dataLoader.StreamingDatasetLoader;
 import model.pa.graph.*;
+import model.pa.dijkstra.AllPairsShortestPaths;
+import model.pa.dijkstra.ContractionHierarchy;
 import model.pa.dijkstra.DijkstraConcreteResult;
-import model.pa.dijkstra.DijkstraResult;
+import model.pa.dijkstra.GreatCircleHeuristic;
+import model.pa.dijkstra.HeapDijkstra;
+import model.pa.dijkstra.LandmarkHeuristic;
+import model.pa.dijkstra.SearchMode;
+import model.pa.dijkstra.ShortestPathCache;
+import model.pa.dijkstra.ShortestPathTree;
+import model.pa.dijkstra.SnapshotDijkstra;
 import observer.*;
 
 /**
@@ -16,13 +35,57 @@ import observer.*;
 public class AirportNetwork extends Subject {
     //Graph<>
     private Graph<Airport, Route> network;
-    private DijkstraResult<Airport> dijkstra;
+    private HeapDijkstra<Airport> dijkstra;
+    //frozen copy of the network for the analytics, taken again after every change
+    private volatile GraphSnapshot<Airport, Route> snapshot;
+    private final ShortestPathCache<Airport> pathCache = new ShortestPathCache<>();
+    private GreatCircleHeuristic greatCircle;
+    private LandmarkHeuristic<Airport> landmarks;
+    private List<Vertex<Airport>> previousLandmarks;
+    private int landmarkVertexCount;
     private String folder;
+    private int lastSettledCount;
+
+    //number of changes so far, to tell which version of the network something was calculated on
+    private volatile long version;
+    //contraction hierarchy and the version it was built on, rebuilt in the background when asked for after changes
+    private ContractionHierarchy<Airport> hierarchy;
+    private long hierarchyVersion = -1;
+    private long scheduledVersion = -1;
+    private ExecutorService hierarchyBuilder;
+    //journal of the edits, null if they aren't recorded
+    private NetworkJournal journal;
+    //airports by case-folded name and by IATA code, kept in step with the network
+    private final Map<String, Vertex<Airport>> airportsByName = new HashMap<>();
+    private final Map<String, Vertex<Airport>> airportsByIata = new HashMap<>();
+    //route and connection statistics, updated on every change
+    private final NetworkStatistics statistics = new NetworkStatistics();
+    //exact betweenness of the current snapshot, calculated when first asked for
+    private BetweennessCentrality<Airport> betweenness;
+    //exact closeness and harmonic centrality of the current snapshot, calculated when first asked for
+    private ClosenessCentrality<Airport> closeness;
+    //last PageRank of each weighting, kept after changes so the next one can start from it
+    private final Map<PageRank.Weighting, PageRank<Airport>> pageRanks = new EnumMap<>(PageRank.Weighting.class);
 
     /**
      * Constructor
      */
-    public AirportNetwork () { network = new GraphAdjacencyMatrix<>(); this.folder = "";}
+    public AirportNetwork () { this(new GraphAdjacencyMatrix<>()); }
+
+    /**
+     * Constructor
+     * @param network empty graph to keep the network in, a GraphAdjacencyMatrix or a PersistentGraph,
+     *                which makes undo backups O(1). Other graphs can't be copied for backups and snapshots
+     * @throws IllegalArgumentException if the graph is of another type
+     */
+    public AirportNetwork (Graph<Airport, Route> network) {
+        if (!(network instanceof GraphAdjacencyMatrix) && !(network instanceof PersistentGraph)) {
+            throw new IllegalArgumentException("The network must be a GraphAdjacencyMatrix or a PersistentGraph");
+        }
+        this.network = network;
+        this.folder = "";
+        reindex();
+    }
 
     /**
      *
@@ -33,13 +96,21 @@ public class AirportNetwork extends Subject {
     public void loadNetwork(String folderpath, String route) throws FileNotFoundException {
 
         try {
-            DatasetLoader set = new DatasetLoader(folderpath, route);
-            this.folder = folderpath;
+            StreamingDatasetLoader set = new StreamingDatasetLoader(folderpath, route);
             System.out.println("iamgem: "+ folderpath);
-            set.createGraph(set.load(), this.network);
-            notifyObservers(null);
+            //loaded into a new graph, so a dataset that can't be read leaves the network as it was
+            Graph<Airport, Route> loaded = set.load(emptyGraph(), new HashMap<>());
+            network = loaded;
+            this.folder = folderpath;
+            reindex();
+            pathCache.clear();
+            changed();
+            journalSnapshot();
+            notifyObservers(network);
         }catch (FileNotFoundException e) {
             throw new AirportNetworkException();
+        }catch (IOException e) {
+            throw new AirportNetworkException(e.getMessage());
         }
     }
 
@@ -59,6 +130,42 @@ public class AirportNetwork extends Subject {
         }
     }
 
+    /**
+     * Replaces the network with the one in a binary snapshot file
+     * @param path path of the file
+     * @throws AirportNetworkException thrown if the file can't be read
+     */
+    public void loadSnapshot(String path) throws AirportNetworkException {
+        //read into a new graph, so a file that can't be read leaves the network as it was
+        Graph<Airport, Route> loaded = emptyGraph();
+        String loadedFolder;
+        try {
+            loadedFolder = NetworkSnapshotFile.read(Paths.get(path), loaded);
+        } catch (IOException e) {
+            throw new AirportNetworkException(e.getMessage());
+        }
+        network = loaded;
+        folder = loadedFolder;
+        reindex();
+        pathCache.clear();
+        changed();
+        journalSnapshot();
+        notifyObservers(network);
+    }
+
+    /**
+     * Saves the network to a binary snapshot file, which loads much faster than the text dataset
+     * @param path path of the file
+     * @throws AirportNetworkException thrown if the file can't be written
+     */
+    public void saveSnapshot(String path) throws AirportNetworkException {
+        try {
+            NetworkSnapshotFile.write(Paths.get(path), network, folder);
+        } catch (IOException e) {
+            throw new AirportNetworkException(e.getMessage());
+        }
+    }
+
     /**
      *
      * @return the full network
@@ -71,6 +178,12 @@ public class AirportNetwork extends Subject {
      */
     public String getFolder() { return folder; }
 
+    /**
+     *
+     * @param folder the path of the dataset folder, used when the network is recovered from a journal
+     */
+    public void setFolder(String folder) { this.folder = folder; }
+
     /**
      *
      * @return a list of all airports
@@ -123,12 +236,54 @@ public class AirportNetwork extends Subject {
      * @return the vertex if it exists or null
      */
     public Vertex<Airport> findAirport(String name) {
-        for (Vertex<Airport> h : network.vertices()) {
-            if (h.element().getName().equalsIgnoreCase(name)) {
-                return h;
-            }
+        if (name == null) return null;
+        return airportsByName.get(fold(name));
+    }
+
+    /**
+     * searches for a vertex in the network with the IATA code
+     * @param iata the code of the airport
+     * @return the vertex if it exists or null
+     */
+    public Vertex<Airport> findAirportByIata(String iata) {
+        return airportsByIata.get(iata);
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds an airport to the indexes, the first airport with a name or code keeps it
+     */
+    private void index(Vertex<Airport> v) {
+        airportsByName.putIfAbsent(fold(v.element().getName()), v);
+        airportsByIata.putIfAbsent(v.element().getAbreviation(), v);
+    }
+
+    /**
+     * Removes an airport from the indexes, handing its name or code to another airport that has it too
+     */
+    private void unindex(Vertex<Airport> v) {
+        String name = fold(v.element().getName());
+        String iata = v.element().getAbreviation();
+        boolean byName = airportsByName.remove(name, v);
+        boolean byIata = airportsByIata.remove(iata, v);
+        if (!byName && !byIata) return;
+        for (Vertex<Airport> other : network.vertices()) {
+            if (byName && fold(other.element().getName()).equals(name)) airportsByName.putIfAbsent(name, other);
+            if (byIata && other.element().getAbreviation().equals(iata)) airportsByIata.putIfAbsent(iata, other);
         }
-        return null;
+    }
+
+    /**
+     * Rebuilds the indexes and the statistics after the network was replaced
+     */
+    private void reindex() {
+        airportsByName.clear();
+        airportsByIata.clear();
+        for (Vertex<Airport> v : network.vertices()) index(v);
+        statistics.rebuild(network);
     }
 
     /**
@@ -158,6 +313,10 @@ public class AirportNetwork extends Subject {
         Vertex<Airport> airport;
         try {
             airport = network.insertVertex(a);
+            index(airport);
+            statistics.airportAdded(airport);
+            record(j -> j.airportAdded(a));
+            changed();
             notifyObservers(airport);
         }
          catch (InvalidEdgeException e) {
@@ -177,12 +336,15 @@ public class AirportNetwork extends Subject {
     public Route addRoute(Vertex<Airport> a1, Vertex<Airport> a2, int distance) throws AirportNetworkException{
         if (findAirport(a1) == null) throw new AirportNetworkException("Airport: " + a1 + "doesn't exist.");
         if (findAirport(a2) == null) throw new AirportNetworkException("Airport: " + a2 + "doesn't exist.");
-        if (findRoute(new Route(a1.element(), a2.element(), distance)) != null) throw new AirportNetworkException("This route already exists.");
+        if (network.areAdjacent(findAirport(a1), findAirport(a2))) throw new AirportNetworkException("This route already exists.");
 
         Route r;
         try {
             r = new Route(a1.element(), a2.element(), distance);
-            network.insertEdge(a1.element(), a2.element(), r);
+            statistics.routeAdded(network.insertEdge(a1.element(), a2.element(), r));
+            pathCache.routeAdded(a1, a2, distance);
+            record(j -> j.routeAdded(a1.element().getName(), a2.element().getName(), distance));
+            changed();
             notifyObservers(r);
         }
         catch (InvalidEdgeException e) {
@@ -232,7 +394,13 @@ public class AirportNetwork extends Subject {
         Vertex<Airport> airport = findAirport(name);
         if (airport == null) throw new AirportNetworkException("This airport doesn't exist.");
         try {
+            for (Edge<Route, Airport> route : network.incidentEdges(airport)) statistics.routeRemoved(route);
             network.removeVertex(airport);
+            unindex(airport);
+            statistics.airportRemoved(airport);
+            pathCache.vertexRemoved(airport);
+            record(j -> j.airportRemoved(airport.element().getName()));
+            changed();
             notifyObservers(network);
         }
         catch (InvalidVertexException e) {
@@ -250,12 +418,18 @@ public class AirportNetwork extends Subject {
     public void removeRoute(String name1, String name2) throws AirportNetworkException{
         Vertex<Airport> a1 = findAirport(name1);
         Vertex<Airport> a2 = findAirport(name2);
+        if (a1 == null) throw new AirportNetworkException("Airport: " + name1 + "doesn't exist.");
+        if (a2 == null) throw new AirportNetworkException("Airport: " + name2 + "doesn't exist.");
 
         for (Edge<Route, Airport> edge : network.incidentEdges(a1)) {
             if (network.opposite(a1, edge) == a2) {
                 network.removeEdge(edge);
+                statistics.routeRemoved(edge);
+                pathCache.routeRemoved(a1, a2);
+                record(j -> j.routeRemoved(a1.element().getName(), a2.element().getName()));
             }
         }
+        changed();
         notifyObservers(network);
     }
 
@@ -267,6 +441,10 @@ public class AirportNetwork extends Subject {
     public void removeRoute(Edge<Route, Airport> route) throws AirportNetworkException {
         try {
             network.removeEdge(route);
+            statistics.routeRemoved(route);
+            pathCache.routeRemoved(route.vertices()[0], route.vertices()[1]);
+            record(j -> j.routeRemoved(route.element().getOrigin().getName(), route.element().getDestination().getName()));
+            changed();
             notifyObservers(null);
         }
         catch (AirportNetworkException e )
@@ -283,14 +461,56 @@ public class AirportNetwork extends Subject {
      * @throws AirportNetworkException thrown if one of the vertices doesn't exist or if there's no possible path
      */
     public DijkstraConcreteResult<Airport> shortestPath(String start, String end) throws AirportNetworkException {
+        return shortestPath(start, end, SearchMode.DIJKSTRA);
+    }
+
+    /**
+     * Returns the shortest path between two airports
+     * @param start origin airport
+     * @param end destination airport
+     * @param mode algorithm used to search the path
+     * @return a dijkstraConcreteResult
+     * @throws AirportNetworkException thrown if one of the vertices doesn't exist or if there's no possible path
+     */
+    public DijkstraConcreteResult<Airport> shortestPath(String start, String end, SearchMode mode) throws AirportNetworkException {
         try {
-            dijkstra = new DijkstraResult<>(network);
+            dijkstra = new HeapDijkstra<>(network);
             Vertex<Airport> h1 = findAirport(start);
             Vertex<Airport> h2 = findAirport(end);
             if (h1 == null) throw new AirportNetworkException("Airport: " + start + "doesn't exist.");
             if (h2 == null) throw new AirportNetworkException("Airport: " + end + "doesn't exist.");
 
-            return dijkstra.dijkstra(h1, h2);
+            DijkstraConcreteResult<Airport> result;
+            switch (mode) {
+                case A_STAR:
+                    if (greatCircle == null) greatCircle = new GreatCircleHeuristic(network);
+                    result = dijkstra.aStar(h1, h2, greatCircle);
+                    lastSettledCount = dijkstra.getSettledCount();
+                    break;
+                case ALT:
+                    result = dijkstra.aStar(h1, h2, landmarkHeuristic());
+                    lastSettledCount = dijkstra.getSettledCount();
+                    break;
+                case CONTRACTION_HIERARCHY:
+                    ContractionHierarchy<Airport> ch = currentHierarchy();
+                    if (ch != null) {
+                        result = ch.shortestPath(h1, h2);
+                        lastSettledCount = result.getSettledCount();
+                        break;
+                    }
+                    //still being built, same answer without it
+                    result = dijkstra.bidirectional(h1, h2);
+                    lastSettledCount = dijkstra.getSettledCount();
+                    break;
+                case BIDIRECTIONAL:
+                    result = dijkstra.bidirectional(h1, h2);
+                    lastSettledCount = dijkstra.getSettledCount();
+                    break;
+                default:
+                    result = cachedTree(h1).resultTo(h2);
+            }
+            if (result.getPath() == null) throw new AirportNetworkException("No path available.");
+            return result;
         }
         catch (InvalidEdgeException e) {
             throw new AirportNetworkException();
@@ -300,6 +520,174 @@ public class AirportNetwork extends Subject {
         }
     }
 
+    /**
+     *
+     * @return how many airports the last shortestPath search settled
+     */
+    public int getLastSettledCount() {
+        return lastSettledCount;
+    }
+
+    /**
+     * Returns an immutable int-indexed copy of the network, weighted by route distance.
+     * The same copy is returned until the network changes, and it can be read from any thread
+     * @return the snapshot
+     */
+    public GraphSnapshot<Airport, Route> snapshot() {
+        GraphSnapshot<Airport, Route> s = snapshot;
+        if (s == null) {
+            s = GraphSnapshot.of(network, Route::getDistance);
+            snapshot = s;
+        }
+        return s;
+    }
+
+    /**
+     * Travels the network in depth order from an airport
+     * @param start the starting airport
+     * @return the airports reached, in the order they were found
+     * @throws AirportNetworkException thrown if the airport doesn't exist
+     */
+    public List<Vertex<Airport>> DFS(String start) throws AirportNetworkException {
+        Vertex<Airport> h = findAirport(start);
+        if (h == null) throw new AirportNetworkException("Airport: " + start + "doesn't exist.");
+        return snapshot().DFS(h);
+    }
+
+    /**
+     * Returns the landmark index of the current network, building it if the network changed.
+     * If only routes changed the previous landmarks are kept and their distances recalculated in parallel
+     * @return the index
+     */
+    public LandmarkHeuristic<Airport> landmarkHeuristic() {
+        if (landmarks != null) return landmarks;
+        GraphSnapshot<Airport, Route> snapshot = snapshot();
+        boolean reuse = previousLandmarks != null && !previousLandmarks.isEmpty();
+        if (reuse) {
+            for (Vertex<Airport> v : previousLandmarks) {
+                if (snapshot.id(v) == -1) reuse = false;
+            }
+        }
+        if (reuse && snapshot.numVertices() == landmarkVertexCount) {
+            landmarks = LandmarkHeuristic.build(snapshot, previousLandmarks);
+        } else {
+            landmarks = LandmarkHeuristic.build(snapshot, LandmarkHeuristic.DEFAULT_LANDMARKS);
+        }
+        landmarkVertexCount = snapshot.numVertices();
+        return landmarks;
+    }
+
+    /**
+     * Returns the contraction hierarchy of the current network, building it now if it isn't ready
+     * @return the hierarchy
+     */
+    public ContractionHierarchy<Airport> contractionHierarchy() {
+        long v = version;
+        ContractionHierarchy<Airport> ch = builtHierarchy(v);
+        if (ch != null) return ch;
+        return publishHierarchy(ContractionHierarchy.build(snapshot()), v);
+    }
+
+    /**
+     * Returns the hierarchy if it was built on the current network, otherwise schedules a rebuild.
+     * Changes only make the hierarchy stale, so a burst of edits costs a single rebuild, started by the next query
+     * @return the hierarchy or null
+     */
+    private ContractionHierarchy<Airport> currentHierarchy() {
+        long v = version;
+        ContractionHierarchy<Airport> ch = builtHierarchy(v);
+        if (ch == null && scheduledVersion != v) scheduleHierarchy();
+        return ch;
+    }
+
+    private synchronized ContractionHierarchy<Airport> builtHierarchy(long v) {
+        return hierarchyVersion == v ? hierarchy : null;
+    }
+
+    /**
+     * Builds the contraction hierarchy of the current network in the background.
+     * A PersistentGraph is copied here in O(1) and its snapshot taken on the builder thread, any other graph has to be
+     * read here, on the thread that changes it. A build is skipped if the network changed again before it started
+     */
+    private void scheduleHierarchy() {
+        long v = version;
+        scheduledVersion = v;
+        GraphSnapshot<Airport, Route> current = snapshot;
+        Graph<Airport, Route> copy = current == null && network instanceof PersistentGraph
+                ? ((PersistentGraph<Airport, Route>) network).snapshot() : null;
+        GraphSnapshot<Airport, Route> s = current != null || copy != null ? current : snapshot();
+        if (hierarchyBuilder == null) {
+            hierarchyBuilder = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "contraction-hierarchy");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        hierarchyBuilder.submit(() -> {
+            if (v != version) return;
+            GraphSnapshot<Airport, Route> built = s != null ? s : GraphSnapshot.of(copy, Route::getDistance);
+            publishHierarchy(ContractionHierarchy.build(built), v);
+        });
+    }
+
+    /**
+     * Keeps a hierarchy unless one of the same or a later version was kept already
+     * @return the hierarchy kept for that version
+     */
+    private synchronized ContractionHierarchy<Airport> publishHierarchy(ContractionHierarchy<Airport> ch, long v) {
+        if (v < hierarchyVersion) return ch;
+        if (v > hierarchyVersion) {
+            hierarchy = ch;
+            hierarchyVersion = v;
+        }
+        return hierarchy;
+    }
+
+    /**
+     * Returns the shortest paths from an airport to every airport it can reach
+     * @param start origin airport
+     * @return the shortest path tree rooted at the origin
+     * @throws AirportNetworkException thrown if the airport doesn't exist
+     */
+    public ShortestPathTree<Airport> shortestPathTree(String start) throws AirportNetworkException {
+        Vertex<Airport> h = findAirport(start);
+        if (h == null) throw new AirportNetworkException("Airport: " + start + "doesn't exist.");
+        return cachedTree(h);
+    }
+
+    /**
+     * Returns the shortest path tree of an airport from the cache, calculating it on a miss
+     * @param start origin airport
+     * @return the shortest path tree rooted at the origin
+     */
+    private ShortestPathTree<Airport> cachedTree(Vertex<Airport> start) {
+        ShortestPathTree<Airport> tree = pathCache.get(start);
+        if (tree != null) {
+            lastSettledCount = 0;
+            return tree;
+        }
+        tree = SnapshotDijkstra.shortestPathTree(snapshot(), start);
+        lastSettledCount = tree.getReachedVertices().size();
+        pathCache.put(tree);
+        return tree;
+    }
+
+    /**
+     *
+     * @return the cache of shortest path trees, with its hit, miss and eviction counts
+     */
+    public ShortestPathCache<Airport> getPathCache() {
+        return pathCache;
+    }
+
+    /**
+     * Calculates the shortest distances between every pair of airports, in parallel
+     * @return the distances
+     */
+    public AllPairsShortestPaths<Airport> allPairsShortestPaths() {
+        return AllPairsShortestPaths.compute(snapshot());
+    }
+
     /**
      * returns the path between the two farthest hubs following the shortest routes
      * @return a dijkstraConcreteResult
@@ -307,22 +695,9 @@ public class AirportNetwork extends Subject {
      */
     public DijkstraConcreteResult<Airport> farthestAirports() throws AirportNetworkException {
         try {
-            dijkstra = new DijkstraResult<>(network);
-            DijkstraConcreteResult<Airport> farthest = new DijkstraConcreteResult<>(-Double.MAX_VALUE, null);
             System.out.println("Calculating...");
-            for (Vertex<Airport> v1 : network.vertices()) {
-                for (Vertex<Airport> v2 : network.vertices()) {
-                    if (v2 == v1) continue;
-                    if (network.incidentEdges(v1).isEmpty() || network.incidentEdges(v2).isEmpty() )continue;
-                    DijkstraConcreteResult<Airport> temp;
-                    temp = dijkstra.dijkstra(v1, v2);
-                    if(temp.getPath()==null)continue;
-                    if (temp.getCost() > farthest.getCost()) {
-                        farthest = temp;
-                    }
-                }
-            }
-            return farthest;
+            //one single source run per airport that only keeps its farthest airport, no n * n matrix
+            return AllPairsShortestPaths.diameter(snapshot());
         } catch (InvalidEdgeException e) {
             throw new AirportNetworkException();
         }
@@ -338,12 +713,8 @@ public class AirportNetwork extends Subject {
      * @return the percentage
      */
     public float calculatePercentageOfAirportsWithConnectionsBetween(int start, int end){
-        int numOfAirportsWithCondition = 0;
-        for (Vertex<Airport> vertex : network.vertices()) {
-            int numOfConnections = ((GraphAdjacencyMatrix<Airport, Route>)network).adjacentTo(vertex).size();
-            if(numOfConnections>=start&&numOfConnections<=end) numOfAirportsWithCondition++;
-        }
-        return (float)numOfAirportsWithCondition/network.vertices().size()*100;
+        int numOfAirportsWithCondition = statistics.countWithRoutesBetween(start, end);
+        return (float)numOfAirportsWithCondition/network.numVertices()*100;
     }
 
     /**
@@ -360,13 +731,8 @@ public class AirportNetwork extends Subject {
      * @return a route
      */
     public Route longestRouteOnGraph() throws AirportNetworkException {
-        Route r = new Route(null, null, 0);
-        for (Edge<Route, Airport> edge : network.edges()) {
-            if(r.compareTo(edge.element())>0){
-                r=edge.element();
-            }
-        }
-        return r;
+        Route r = statistics.getLongestRoute();
+        return r == null ? new Route(null, null, 0) : r;
     }
 
     /**
@@ -374,13 +740,8 @@ public class AirportNetwork extends Subject {
      * @return a route
      */
     public Route shortestRouteOnGraph() throws AirportNetworkException {
-        Route r = new Route(null, null, Integer.MAX_VALUE);
-        for (Edge<Route, Airport> edge : network.edges()) {
-            if(r.compareTo(edge.element())<0){
-                r=edge.element();
-            }
-        }
-        return r;
+        Route r = statistics.getShortestRoute();
+        return r == null ? new Route(null, null, Integer.MAX_VALUE) : r;
     }
 
     /**
@@ -388,11 +749,7 @@ public class AirportNetwork extends Subject {
      * @return a float
      */
     public float averageOfDistanceOfRoutes(){
-        int sumOfRoutesDistance = 0;
-        for (Edge<Route, Airport> e : network.edges()) {
-            sumOfRoutesDistance += e.element().getDistance();
-        }
-        return (float)sumOfRoutesDistance/network.numEdges();
+        return statistics.getAverageDistance();
     }
 
     /**
@@ -400,21 +757,7 @@ public class AirportNetwork extends Subject {
      * @return a hashmap
      */
     public Map<Airport, Integer> centralAirport(){
-        int count = 0;
-        Map<Airport, Integer> airports = new HashMap<>();
-        LinkedHashMap<Airport, Integer> reverseOrderMap = new LinkedHashMap<>();
-
-        for(Vertex<Airport> v1 : network.vertices()){
-            for(Vertex<Airport> v2 : network.vertices()){
-                if(network.areAdjacent(v1, v2) && v1 != v2) {
-                    count++;
-                }
-            }
-            airports.put(v1.element(), count);
-            count = 0;
-        }
-        airports.entrySet().stream().sorted(Map.Entry.comparingByValue(Comparator.reverseOrder())).forEach(x -> reverseOrderMap.put(x.getKey(), x.getValue()));
-        return reverseOrderMap;
+        return statistics.mostConnected(Integer.MAX_VALUE);
     }
 
     /**
@@ -422,17 +765,106 @@ public class AirportNetwork extends Subject {
      * @return hashmap
      */
     public Map<Airport, Integer> top10Central(){
-        Map<Airport, Integer> top10 = new LinkedHashMap<>();
-        Iterator<Map.Entry<Airport, Integer>> iterator = centralAirport().entrySet().iterator();
+        return statistics.mostConnected(10);
+    }
 
-        for(int i=0;i<10;i++) {
-            if(iterator.hasNext()) {
-                Map.Entry<Airport, Integer> next = iterator.next();
-                top10.put(next.getKey(), next.getValue());
-            }
-        }
+    /**
+     * Calculates the betweenness of every airport, the number of shortest routes between other airports that go
+     * through it. The result is kept until the network changes
+     * @return the betweenness of the network
+     */
+    public synchronized BetweennessCentrality<Airport> betweennessCentrality(){
+        GraphSnapshot<Airport, Route> s = snapshot();
+        if (betweenness != null && betweenness.getSnapshot() == s) return betweenness;
+        betweenness = BetweennessCentrality.compute(s);
+        return betweenness;
+    }
 
-        return top10;
+    /**
+     * returns the 10 airports that are on the most shortest routes between other airports
+     * @return a map of the airports and their betweenness, highest first
+     */
+    public Map<Airport, Double> top10Betweenness(){
+        return toAirports(betweennessCentrality().top(10));
+    }
+
+    /**
+     * estimates the 10 airports that are on the most shortest routes from the searches of some random airports,
+     * for networks too large for the exact betweenness
+     * @param pivots number of airports to search from
+     * @return a map of the airports and their estimated betweenness, highest first
+     */
+    public Map<Airport, Double> top10Betweenness(int pivots){
+        return toAirports(BetweennessCentrality.sample(snapshot(), pivots, new Random()).top(10));
+    }
+
+    /**
+     * Calculates the closeness and harmonic centrality of every airport, how near it is to all the others.
+     * The result is kept until the network changes
+     * @return the closeness of the network
+     */
+    public synchronized ClosenessCentrality<Airport> closenessCentrality(){
+        GraphSnapshot<Airport, Route> s = snapshot();
+        if (closeness != null && closeness.getSnapshot() == s) return closeness;
+        closeness = ClosenessCentrality.compute(s);
+        return closeness;
+    }
+
+    /**
+     * estimates the closeness and harmonic centrality of every airport from the searches of some random airports,
+     * for networks too large for the exact values
+     * @param samples number of airports to search from
+     * @return the estimated closeness, with bounds on its error
+     */
+    public ClosenessCentrality<Airport> closenessCentrality(int samples){
+        return ClosenessCentrality.sample(snapshot(), samples, new Random());
+    }
+
+    /**
+     * returns the 10 airports with the shortest routes to all the others
+     * @return a map of the airports and their closeness, highest first
+     */
+    public Map<Airport, Double> top10Closeness(){
+        return toAirports(closenessCentrality().topCloseness(10));
+    }
+
+    /**
+     * returns the 10 airports with the highest harmonic centrality
+     * @return a map of the airports and their harmonic centrality, highest first
+     */
+    public Map<Airport, Double> top10Harmonic(){
+        return toAirports(closenessCentrality().topHarmonic(10));
+    }
+
+    /**
+     * Ranks the airports by PageRank, where routes are followed in proportion to their weight.
+     * The ranking is kept until the network changes, and the next one starts from it, so after a few edits it
+     * takes only a few iterations
+     * @param weighting whether longer or shorter routes weigh more
+     * @return the ranking
+     */
+    public synchronized PageRank<Airport> pageRank(PageRank.Weighting weighting){
+        GraphSnapshot<Airport, Route> s = snapshot();
+        PageRank<Airport> previous = pageRanks.get(weighting);
+        if (previous != null && previous.getSnapshot() == s) return previous;
+        PageRank<Airport> rank = PageRank.compute(s, weighting, previous);
+        pageRanks.put(weighting, rank);
+        return rank;
+    }
+
+    /**
+     * returns the 10 airports with the highest PageRank
+     * @param weighting whether longer or shorter routes weigh more
+     * @return a map of the airports and their rank, highest first
+     */
+    public Map<Airport, Double> top10PageRank(PageRank.Weighting weighting){
+        return toAirports(pageRank(weighting).top(10));
+    }
+
+    private static Map<Airport, Double> toAirports(Map<Vertex<Airport>, Double> scores) {
+        Map<Airport, Double> map = new LinkedHashMap<>();
+        scores.forEach((v, score) -> map.put(v.element(), score));
+        return map;
     }
 
     /**
@@ -440,14 +872,15 @@ public class AirportNetwork extends Subject {
      * @return a list
      */
     public List<Airport> ListOfAirportsWithNoRoutesOrderedAlphabetically(){
-        List<Airport> l = new LinkedList<>();
-        for (Vertex<Airport> v : network.vertices()) {
-            if(((GraphAdjacencyMatrix<Airport, Route>)network).isIsolated(v)) l.add(v.element());
-        }
-        Collections.sort(l);
-        return l;
+        return statistics.getIsolated();
     }
 
+    /**
+     *
+     * @return the statistics of the network, kept up to date on every change
+     */
+    public NetworkStatistics getStatistics() { return statistics; }
+
     /**
      * returna a list of the incident routes of an airport
      * @param city name of the airport
@@ -461,17 +894,85 @@ public class AirportNetwork extends Subject {
      * clears the network
      */
     public void reset(){
-        ((GraphAdjacencyMatrix<Airport, Route>) network).clear();
+        clearNetwork();
+        reindex();
+        pathCache.clear();
+        changed();
+        journalSnapshot();
     }
 
     /**
-     * restores last command
+     * @return an empty graph of the same type as the network
      */
-    public void restore(GraphAdjacencyMatrix<Airport, Route> g){
-        network = new GraphAdjacencyMatrix<>(g);
+    private Graph<Airport, Route> emptyGraph() {
+        if (network instanceof PersistentGraph) return new PersistentGraph<>();
+        return new GraphAdjacencyMatrix<>();
+    }
+
+    private void clearNetwork() {
+        if (network instanceof PersistentGraph) ((PersistentGraph<Airport, Route>) network).clear();
+        else ((GraphAdjacencyMatrix<Airport, Route>) network).clear();
+    }
+
+    /**
+     * restores last command
+     * @param g backup of the network, it is copied so it can be restored again
+     */
+    public void restore(Graph<Airport, Route> g){
+        if (g instanceof PersistentGraph) network = ((PersistentGraph<Airport, Route>) g).snapshot();
+        else network = new GraphAdjacencyMatrix<>((GraphAdjacencyMatrix<Airport, Route>) g);
+        reindex();
+        pathCache.clear();
+        changed();
+        journalSnapshot();
         notifyObservers(network);
     }
 
+    /**
+     * Starts recording the edits of the network in a journal, replay it first to recover a previous session
+     * @param journal the journal, or null to stop recording
+     */
+    public void setJournal(NetworkJournal journal) { this.journal = journal; }
+
+    /**
+     *
+     * @return the journal of the edits, or null if they aren't recorded
+     */
+    public NetworkJournal getJournal() { return journal; }
+
+    /**
+     * Records an edit in the journal, replacing the journal with a snapshot when it has grown too long
+     */
+    private void record(Consumer<NetworkJournal> edit) {
+        if (journal == null) return;
+        edit.accept(journal);
+        if (journal.needsCompaction()) journalSnapshot();
+    }
+
+    /**
+     * Replaces the journal with a snapshot of the network, written in the background from a copy
+     */
+    private void journalSnapshot() {
+        if (journal == null) return;
+        if (network instanceof PersistentGraph) journal.compact(((PersistentGraph<Airport, Route>) network).snapshot(), folder);
+        else journal.compact(new GraphAdjacencyMatrix<>((GraphAdjacencyMatrix<Airport, Route>) network), folder);
+    }
+
+    /**
+     * Drops everything calculated from the previous state of the network
+     */
+    private void changed() {
+        snapshot = null;
+        betweenness = null;
+        closeness = null;
+        greatCircle = null;
+        if (landmarks != null) {
+            previousLandmarks = landmarks.getLandmarks();
+            landmarks = null;
+        }
+        version++;
+    }
+
     @Override
     public String toString() {
         return "LogisticsNetwork{" +
@@ -0,0 +1,214 @@
+package model.pa.model;
+
+import java.util.*;
+import model.pa.analytics.DegreeRanking;
+import model.pa.graph.Edge;
+import model.pa.graph.Graph;
+import model.pa.graph.Vertex;
+
+/**
+ * Statistics of an airport network kept up to date on every change instead of being recalculated from the graph.
+ * Routes are kept in a running sum and a sorted multiset of distances, airports in a DegreeRanking by their number
+ * of connections (routes to other airports), which updates in O(1) and answers top-k and range counts, and the
+ * airports with no routes in a set sorted by IATA code. Edits cost O(log n), the queries O(1) or O(k) in what they return
+ */
+public class NetworkStatistics {
+    private long distanceSum;
+    private int routeCount;
+    private final TreeMap<Integer, LinkedHashSet<Edge<Route, Airport>>> routesByDistance = new TreeMap<>();
+
+    private final Map<Vertex<Airport>, Connections> airports = new HashMap<>();
+    private final DegreeRanking<Airport> ranking = new DegreeRanking<>();
+    private final TreeSet<Vertex<Airport>> isolated = new TreeSet<>((u, v) -> {
+        int c = u.element().compareTo(v.element());
+        return c != 0 ? c : Long.compare(airports.get(u).order, airports.get(v).order);
+    });
+    private final Set<Vertex<Airport>> looped = new HashSet<>();
+    private long nextOrder;
+
+    private static final class Connections {
+        final long order;
+        boolean loop;
+
+        Connections(long order) {
+            this.order = order;
+        }
+    }
+
+    /**
+     * Recalculates everything from a graph, after it was replaced
+     * @param graph the network
+     */
+    public void rebuild(Graph<Airport, Route> graph) {
+        distanceSum = 0;
+        routeCount = 0;
+        routesByDistance.clear();
+        airports.clear();
+        ranking.clear();
+        isolated.clear();
+        looped.clear();
+        for (Vertex<Airport> v : graph.vertices()) airportAdded(v);
+        for (Edge<Route, Airport> e : graph.edges()) routeAdded(e);
+    }
+
+    /**
+     * @param v an airport added to the network, with no routes yet
+     */
+    public void airportAdded(Vertex<Airport> v) {
+        Connections c = new Connections(nextOrder++);
+        airports.put(v, c);
+        ranking.add(v);
+        isolated.add(v);
+    }
+
+    /**
+     * @param v an airport removed from the network, after its routes were removed
+     */
+    public void airportRemoved(Vertex<Airport> v) {
+        Connections c = airports.get(v);
+        if (c == null) return;
+        isolated.remove(v);
+        ranking.remove(v);
+        looped.remove(v);
+        airports.remove(v);
+    }
+
+    /**
+     * @param e a route added to the network
+     */
+    public void routeAdded(Edge<Route, Airport> e) {
+        int distance = e.element().getDistance();
+        distanceSum += distance;
+        routeCount++;
+        routesByDistance.computeIfAbsent(distance, d -> new LinkedHashSet<>()).add(e);
+
+        Vertex<Airport> u = e.vertices()[0];
+        Vertex<Airport> v = e.vertices()[1];
+        if (u == v) {
+            isolated.remove(u);
+            airports.get(u).loop = true;
+            looped.add(u);
+            return;
+        }
+        connect(u, true);
+        connect(v, true);
+    }
+
+    /**
+     * @param e a route removed from the network
+     */
+    public void routeRemoved(Edge<Route, Airport> e) {
+        int distance = e.element().getDistance();
+        LinkedHashSet<Edge<Route, Airport>> routes = routesByDistance.get(distance);
+        if (routes == null || !routes.remove(e)) return;
+        if (routes.isEmpty()) routesByDistance.remove(distance);
+        distanceSum -= distance;
+        routeCount--;
+
+        Vertex<Airport> u = e.vertices()[0];
+        Vertex<Airport> v = e.vertices()[1];
+        if (u == v) {
+            Connections c = airports.get(u);
+            c.loop = false;
+            looped.remove(u);
+            if (ranking.degree(u) == 0) isolated.add(u);
+            return;
+        }
+        connect(u, false);
+        connect(v, false);
+    }
+
+    private void connect(Vertex<Airport> v, boolean add) {
+        boolean loop = airports.get(v).loop;
+        if (ranking.degree(v) == 0 && !loop) isolated.remove(v);
+        if (add) ranking.increment(v);
+        else ranking.decrement(v);
+        if (ranking.degree(v) == 0 && !loop) isolated.add(v);
+    }
+
+    /**
+     *
+     * @return the number of routes
+     */
+    public int getRouteCount() { return routeCount; }
+
+    /**
+     *
+     * @return the sum of the distances of all routes
+     */
+    public long getDistanceSum() { return distanceSum; }
+
+    /**
+     *
+     * @return the average distance of the routes, NaN if there are none
+     */
+    public float getAverageDistance() { return (float) distanceSum / routeCount; }
+
+    /**
+     *
+     * @return the first of the shortest routes, or null if there are none
+     */
+    public Route getShortestRoute() {
+        return routesByDistance.isEmpty() ? null : routesByDistance.firstEntry().getValue().iterator().next().element();
+    }
+
+    /**
+     *
+     * @return the first of the longest routes, or null if there are none
+     */
+    public Route getLongestRoute() {
+        return routesByDistance.isEmpty() ? null : routesByDistance.lastEntry().getValue().iterator().next().element();
+    }
+
+    /**
+     *
+     * @param k how many airports to return
+     * @return the k airports with the most connections and their number, most connected first
+     */
+    public LinkedHashMap<Airport, Integer> mostConnected(int k) {
+        LinkedHashMap<Airport, Integer> top = new LinkedHashMap<>();
+        for (Vertex<Airport> v : ranking.top(k)) top.put(v.element(), ranking.degree(v));
+        return top;
+    }
+
+    /**
+     *
+     * @return the airports with no routes, ordered by IATA code
+     */
+    public List<Airport> getIsolated() {
+        List<Airport> list = new ArrayList<>(isolated.size());
+        for (Vertex<Airport> v : isolated) list.add(v.element());
+        return list;
+    }
+
+    /**
+     *
+     * @return how many airports have each number of connections, for the numbers that some airport has
+     */
+    public SortedMap<Integer, Integer> getDegreeHistogram() {
+        return ranking.histogram();
+    }
+
+    /**
+     *
+     * @return the ranking of the airports by their number of connections
+     */
+    public DegreeRanking<Airport> getRanking() { return ranking; }
+
+    /**
+     * Counts the airports with a number of routes in a range, where a route from an airport to itself counts too
+     * @param start minimum number of routes
+     * @param end maximum number of routes
+     * @return the number of airports
+     */
+    public int countWithRoutesBetween(int start, int end) {
+        int count = ranking.countBetween(start, end);
+        //an airport with a route to itself has one route more than its connections
+        for (Vertex<Airport> v : looped) {
+            int connections = ranking.degree(v);
+            if (connections >= start && connections <= end) count--;
+            if (connections + 1 >= start && connections + 1 <= end) count++;
+        }
+        return count;
+    }
+}
@@ -35,7 +35,8 @@ public class Route implements Comparable<Route> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(origin, destination);
+        //symmetric, as equals ignores the direction of the route
+        return Objects.hashCode(origin) + Objects.hashCode(destination);
     }
 
     @Override
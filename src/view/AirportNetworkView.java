@@ -75,6 +75,7 @@ public class AirportNetworkView extends BorderPane implements AirportNetworkUI,
     private MenuItem importItem = new MenuItem("Import");
     private MenuItem exportItem = new MenuItem("Export Routes");
     private MenuItem undoItem = new MenuItem("Undo");
+    private MenuItem redoItem = new MenuItem("Redo");
 
     private DirectoryChooser directoryChooser = new DirectoryChooser();
     private FileChooser fileChooser = new FileChooser();
@@ -185,6 +186,10 @@ public class AirportNetworkView extends BorderPane implements AirportNetworkUI,
 
         });
 
+        redoItem.setOnAction(event ->{
+            controller.doRedo();
+        });
+
         btnOpenPieChart.setOnAction(event -> {
             PieChartSample pieChart = new PieChartSample();
             pieChart.start();
@@ -262,6 +267,7 @@ public class AirportNetworkView extends BorderPane implements AirportNetworkUI,
         fileMenu.getItems().add(importItem);
         fileMenu.getItems().add(exportItem);
         fileMenu.getItems().add(undoItem);
+        fileMenu.getItems().add(redoItem);
         MenuBar menuBar = new MenuBar();
         menuBar.getMenus().add(fileMenu);
 
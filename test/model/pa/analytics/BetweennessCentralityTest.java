@@ -0,0 +1,125 @@
+package model.pa.analytics;
+
+import model.pa.dijkstra.DijkstraBenchmark;
+import model.pa.graph.GraphSnapshot;
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import model.pa.model.Route;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BetweennessCentralityTest {
+
+    /**
+     * Betweenness from the definition: for every pair, the fraction of its shortest paths through each vertex
+     */
+    private static double[] bruteForce(GraphSnapshot<Airport, Route> s) {
+        int n = s.numVertices();
+        double[][] dist = new double[n][n];
+        double[][] count = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(dist[i], Double.MAX_VALUE);
+            dist[i][i] = 0;
+            count[i][i] = 1;
+        }
+        for (int i = 0; i < n; i++) {
+            for (int slot = s.offset(i); slot < s.offset(i + 1); slot++) {
+                if (s.target(slot) != i) dist[i][s.target(slot)] = s.weight(slot);
+            }
+        }
+        for (int k = 0; k < n; k++)
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < n; j++)
+                    if (dist[i][k] != Double.MAX_VALUE && dist[k][j] != Double.MAX_VALUE)
+                        dist[i][j] = Math.min(dist[i][j], dist[i][k] + dist[k][j]);
+        //number of shortest paths from i, counting the last edge of each
+        for (int i = 0; i < n; i++) {
+            Integer[] byDistance = new Integer[n];
+            for (int j = 0; j < n; j++) byDistance[j] = j;
+            final int source = i;
+            Arrays.sort(byDistance, Comparator.comparingDouble(j -> dist[source][j]));
+            for (int j : byDistance) {
+                if (j == i || dist[i][j] == Double.MAX_VALUE) continue;
+                for (int slot = s.offset(j); slot < s.offset(j + 1); slot++) {
+                    int v = s.target(slot);
+                    if (v != j && dist[i][v] + s.weight(slot) == dist[i][j]) count[i][j] += count[i][v];
+                }
+            }
+        }
+        double[] scores = new double[n];
+        for (int a = 0; a < n; a++)
+            for (int b = a + 1; b < n; b++) {
+                if (dist[a][b] == Double.MAX_VALUE) continue;
+                for (int v = 0; v < n; v++) {
+                    if (v != a && v != b && dist[a][v] + dist[v][b] == dist[a][b]) {
+                        scores[v] += count[a][v] * count[v][b] / count[a][b];
+                    }
+                }
+            }
+        return scores;
+    }
+
+    @Test
+    void compute_shouldMatchTheDefinition() {
+        AirportNetwork an = DijkstraBenchmark.randomNetwork(60, 3);
+        an.addAirport(new Airport("Isolated", "ISO", 0, 0));
+        GraphSnapshot<Airport, Route> s = an.snapshot();
+        BetweennessCentrality<Airport> bc = BetweennessCentrality.compute(s);
+        double[] expected = bruteForce(s);
+        for (int i = 0; i < s.numVertices(); i++) {
+            assertEquals(expected[i], bc.score(i), 1e-6);
+        }
+        assertTrue(bc.isExact());
+        assertEquals(0, bc.score(an.findAirport("Isolated")));
+    }
+
+    @Test
+    void compute_shouldSplitPairsWithSeveralShortestPaths() {
+        AirportNetwork an = new AirportNetwork();
+        for (String name : new String[]{"A", "B", "C", "D", "E"}) an.addAirport(new Airport(name, name, 0, 0));
+        an.addRoute("A", "B", 1);
+        an.addRoute("B", "C", 1);
+        an.addRoute("C", "D", 1);
+        an.addRoute("D", "A", 1);
+        an.addRoute("C", "E", 5);
+
+        BetweennessCentrality<Airport> bc = an.betweennessCentrality();
+        //A-C and A-E go through B or D, B-D through A or C, and C is on every path to E
+        assertEquals(0.5 + 0.5, bc.score(an.findAirport("B")), 1e-9);
+        assertEquals(0.5 + 0.5, bc.score(an.findAirport("D")), 1e-9);
+        assertEquals(0.5, bc.score(an.findAirport("A")), 1e-9);
+        assertEquals(0.5 + 3, bc.score(an.findAirport("C")), 1e-9);
+        assertEquals("C", an.top10Betweenness().keySet().iterator().next().getName());
+        assertSame(bc, an.betweennessCentrality());
+
+        an.removeRoute("C", "E");
+        assertNotSame(bc, an.betweennessCentrality());
+    }
+
+    @Test
+    void sample_shouldEstimateTheExactScores() {
+        AirportNetwork an = DijkstraBenchmark.randomNetwork(200, 3);
+        GraphSnapshot<Airport, Route> s = an.snapshot();
+        BetweennessCentrality<Airport> exact = BetweennessCentrality.compute(s);
+
+        BetweennessCentrality<Airport> all = BetweennessCentrality.sample(s, 500, new Random(1));
+        assertTrue(all.isExact());
+        for (int i = 0; i < s.numVertices(); i++) assertEquals(exact.score(i), all.score(i), 1e-6);
+
+        BetweennessCentrality<Airport> sampled = BetweennessCentrality.sample(s, 100, new Random(1));
+        assertEquals(100, sampled.getPivots());
+        double exactSum = 0;
+        double sampledSum = 0;
+        for (int i = 0; i < s.numVertices(); i++) {
+            exactSum += exact.score(i);
+            sampledSum += sampled.score(i);
+        }
+        assertEquals(exactSum, sampledSum, exactSum * 0.25);
+        Vertex<Airport> hub = exact.top(1).keySet().iterator().next();
+        assertTrue(sampled.top(20).containsKey(hub));
+    }
+}
@@ -0,0 +1,68 @@
+package model.pa.analytics;
+
+import model.pa.dijkstra.DijkstraBenchmark;
+import model.pa.dijkstra.HeapDijkstra;
+import model.pa.dijkstra.ShortestPathTree;
+import model.pa.graph.GraphSnapshot;
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import model.pa.model.Route;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClosenessCentralityTest {
+
+    @Test
+    void compute_shouldMatchHeapDijkstra() {
+        AirportNetwork an = DijkstraBenchmark.randomNetwork(150, 5);
+        an.addAirport(new Airport("Isolated", "ISO", 0, 0));
+        GraphSnapshot<Airport, Route> s = an.snapshot();
+        ClosenessCentrality<Airport> cc = an.closenessCentrality();
+        HeapDijkstra<Airport> dk = new HeapDijkstra<>(an.getNetwork());
+        int n = s.numVertices();
+        for (Vertex<Airport> v : s.vertices()) {
+            ShortestPathTree<Airport> tree = dk.shortestPathTree(v);
+            double sum = 0;
+            double inverse = 0;
+            int reached = 0;
+            for (Vertex<Airport> u : s.vertices()) {
+                double d = tree.getCost(u);
+                if (u == v || d == Double.MAX_VALUE) continue;
+                sum += d;
+                inverse += 1 / d;
+                reached++;
+            }
+            double closeness = reached == 0 ? 0 : (double) reached * reached / ((n - 1) * sum);
+            assertEquals(closeness, cc.closeness(v), 1e-12);
+            assertEquals(inverse / (n - 1), cc.harmonic(v), 1e-12);
+        }
+        assertEquals(0, cc.closeness(an.findAirport("Isolated")));
+        assertEquals(0, cc.harmonic(an.findAirport("Isolated")));
+        assertSame(cc, an.closenessCentrality());
+        assertEquals(10, an.top10Closeness().size());
+    }
+
+    @Test
+    void sample_shouldStayWithinItsErrorBounds() {
+        AirportNetwork an = DijkstraBenchmark.randomNetwork(400, 9);
+        GraphSnapshot<Airport, Route> s = an.snapshot();
+        ClosenessCentrality<Airport> exact = ClosenessCentrality.compute(s);
+        ClosenessCentrality<Airport> sampled = ClosenessCentrality.sample(s, 120, new Random(2));
+        assertFalse(sampled.isExact());
+        assertEquals(0, exact.getHarmonicError(0.99));
+
+        double harmonicError = sampled.getHarmonicError(0.99);
+        double distanceError = sampled.getDistanceError(0.99);
+        assertTrue(harmonicError > 0 && distanceError > 0);
+        for (int i = 0; i < s.numVertices(); i++) {
+            assertEquals(exact.harmonic(i), sampled.harmonic(i), harmonicError);
+            assertEquals(exact.averageDistance(i), sampled.averageDistance(i), distanceError);
+        }
+        //more samples, tighter bounds
+        assertTrue(ClosenessCentrality.sample(s, 300, new Random(2)).getHarmonicError(0.99) < harmonicError);
+    }
+}
@@ -0,0 +1,86 @@
+package model.pa.analytics;
+
+import model.pa.graph.Vertex;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DegreeRankingTest {
+
+    private static Vertex<Integer> vertex(int i) {
+        return () -> i;
+    }
+
+    @Test
+    void randomUpdates_shouldMatchTheDegrees() {
+        Random random = new Random(7);
+        DegreeRanking<Integer> ranking = new DegreeRanking<>();
+        Map<Vertex<Integer>, Integer> degrees = new HashMap<>();
+        List<Vertex<Integer>> vertices = new ArrayList<>();
+        for (int step = 0; step < 5000; step++) {
+            int op = random.nextInt(10);
+            if (op == 0 || vertices.isEmpty()) {
+                Vertex<Integer> v = vertex(step);
+                ranking.add(v);
+                vertices.add(v);
+                degrees.put(v, 0);
+            } else if (op == 1) {
+                Vertex<Integer> v = vertices.remove(random.nextInt(vertices.size()));
+                ranking.remove(v);
+                degrees.remove(v);
+            } else {
+                Vertex<Integer> v = vertices.get(random.nextInt(vertices.size()));
+                if (op < 7) {
+                    ranking.increment(v);
+                    degrees.merge(v, 1, Integer::sum);
+                } else if (degrees.get(v) > 0) {
+                    ranking.decrement(v);
+                    degrees.merge(v, -1, Integer::sum);
+                }
+            }
+        }
+
+        assertEquals(vertices.size(), ranking.size());
+        List<Integer> sorted = new ArrayList<>(degrees.values());
+        sorted.sort(Collections.reverseOrder());
+        List<Vertex<Integer>> top = ranking.top(10);
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(sorted.get(i), ranking.degree(top.get(i)));
+            assertEquals(sorted.get(i), degrees.get(top.get(i)));
+        }
+        assertEquals(sorted.get(0), ranking.getMaxDegree());
+        for (int start = 0; start <= 8; start++) {
+            for (int end = start; end <= 8; end++) {
+                int expected = 0;
+                for (int d : sorted) if (d >= start && d <= end) expected++;
+                assertEquals(expected, ranking.countBetween(start, end));
+            }
+        }
+    }
+
+    @Test
+    void removingAVertexWithRoutes_shouldKeepTheOthersInOrder() {
+        DegreeRanking<Integer> ranking = new DegreeRanking<>();
+        Vertex<Integer> a = vertex(1);
+        Vertex<Integer> b = vertex(2);
+        Vertex<Integer> c = vertex(3);
+        ranking.add(a);
+        ranking.add(b);
+        ranking.add(c);
+        ranking.increment(b);
+        ranking.increment(b);
+        ranking.increment(c);
+
+        assertEquals(Arrays.asList(b, c, a), ranking.top(3));
+        assertEquals(2, ranking.countBetween(1, Integer.MAX_VALUE));
+        assertEquals(100f * 2 / 3, ranking.percentile(1), 0.001);
+
+        ranking.remove(b);
+        assertEquals(Arrays.asList(c, a), ranking.top(5));
+        assertEquals(1, ranking.getMaxDegree());
+        assertThrows(IllegalArgumentException.class, () -> ranking.degree(b));
+        assertThrows(IllegalStateException.class, () -> ranking.decrement(a));
+    }
+}
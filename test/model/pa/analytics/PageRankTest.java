@@ -0,0 +1,83 @@
+package model.pa.analytics;
+
+import model.pa.dijkstra.DijkstraBenchmark;
+import model.pa.graph.GraphSnapshot;
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import model.pa.model.Route;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageRankTest {
+
+    /**
+     * Serial power iteration, run far past convergence
+     */
+    private static double[] reference(GraphSnapshot<Airport, Route> s, PageRank.Weighting weighting) {
+        int n = s.numVertices();
+        double[] rank = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        for (int it = 0; it < 500; it++) {
+            double[] next = new double[n];
+            double dangling = 0;
+            for (int u = 0; u < n; u++) {
+                double out = 0;
+                for (int slot = s.offset(u); slot < s.offset(u + 1); slot++) out += weighting.weight(s.weight(slot));
+                if (out == 0) {
+                    dangling += rank[u];
+                    continue;
+                }
+                for (int slot = s.offset(u); slot < s.offset(u + 1); slot++) {
+                    next[s.target(slot)] += PageRank.DEFAULT_DAMPING * rank[u] * weighting.weight(s.weight(slot)) / out;
+                }
+            }
+            for (int v = 0; v < n; v++) next[v] += (1 - PageRank.DEFAULT_DAMPING + PageRank.DEFAULT_DAMPING * dangling) / n;
+            rank = next;
+        }
+        return rank;
+    }
+
+    @Test
+    void compute_shouldMatchASerialPowerIteration() {
+        AirportNetwork an = DijkstraBenchmark.randomNetwork(120, 4);
+        an.addAirport(new Airport("Isolated", "ISO", 0, 0));
+        GraphSnapshot<Airport, Route> s = an.snapshot();
+        for (PageRank.Weighting weighting : PageRank.Weighting.values()) {
+            PageRank<Airport> pr = an.pageRank(weighting);
+            double[] expected = reference(s, weighting);
+            double sum = 0;
+            for (int i = 0; i < s.numVertices(); i++) {
+                assertEquals(expected[i], pr.score(i), 1e-9);
+                sum += pr.score(i);
+            }
+            assertEquals(1, sum, 1e-9);
+            assertTrue(pr.getResidual() <= PageRank.DEFAULT_TOLERANCE);
+            assertSame(pr, an.pageRank(weighting));
+        }
+        assertNotEquals(an.top10PageRank(PageRank.Weighting.DISTANCE), an.top10PageRank(PageRank.Weighting.INVERSE_DISTANCE));
+    }
+
+    @Test
+    void routeEdits_shouldStartFromThePreviousRanking() {
+        AirportNetwork an = DijkstraBenchmark.randomNetwork(2000, 8);
+        PageRank<Airport> first = an.pageRank(PageRank.Weighting.INVERSE_DISTANCE);
+
+        List<Vertex<Airport>> airports = new ArrayList<>(an.getNetwork().vertices());
+        an.addRoute(airports.get(0), airports.get(1000), 5000);
+        an.removeRoute(airports.get(0).element().getName(), airports.get(1000).element().getName());
+        an.addRoute(airports.get(10), airports.get(1500), 4000);
+        PageRank<Airport> warm = an.pageRank(PageRank.Weighting.INVERSE_DISTANCE);
+        PageRank<Airport> cold = PageRank.compute(an.snapshot(), PageRank.Weighting.INVERSE_DISTANCE, null);
+
+        assertNotSame(first, warm);
+        assertTrue(warm.getIterations() * 3 < cold.getIterations() * 2,
+                warm.getIterations() + " warm iterations, " + cold.getIterations() + " cold");
+        for (int i = 0; i < an.snapshot().numVertices(); i++) assertEquals(cold.score(i), warm.score(i), 1e-8);
+    }
+}
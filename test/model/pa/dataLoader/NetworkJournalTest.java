@@ -0,0 +1,156 @@
+package model.pa.dataLoader;
+
+import model.pa.graph.PersistentGraph;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkJournalTest {
+
+    Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("network", ".journal");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private AirportNetwork edit(NetworkJournal journal) {
+        AirportNetwork network = new AirportNetwork(new PersistentGraph<>());
+        network.setJournal(journal);
+        network.addAirport(new Airport("Lisboa", "LIS", 38.7, -9.1, 114, 31, 25));
+        network.addAirport(new Airport("Porto", "POR", 67, 36));
+        network.addAirport(new Airport("Milao", "MIL", 11, 60));
+        network.addRoute("Lisboa", "Porto", 400);
+        network.addRoute("Lisboa", "Milao", 1500);
+        network.addRoute("Porto", "Milao", 1700);
+        network.removeRoute("Porto", "Milao");
+        network.removeAirport("Milao");
+        return network;
+    }
+
+    private AirportNetwork recover() throws IOException {
+        AirportNetwork network = new AirportNetwork(new PersistentGraph<>());
+        try (NetworkJournal journal = new NetworkJournal(file)) {
+            assertTrue(journal.replay(network));
+        }
+        return network;
+    }
+
+    @Test
+    void replay_shouldRebuildTheEditedNetwork() throws IOException {
+        try (NetworkJournal journal = new NetworkJournal(file)) {
+            edit(journal);
+        }
+        AirportNetwork network = recover();
+        assertEquals(2, network.airportCount());
+        assertEquals(1, network.routeCount());
+        assertNull(network.findAirport("Milao"));
+        assertEquals(38.7, network.findAirport("Lisboa").element().getLatitude());
+        assertFalse(network.findAirport("Porto").element().hasCoordinates());
+    }
+
+    @Test
+    void replay_shouldDropATornRecord() throws IOException {
+        try (NetworkJournal journal = new NetworkJournal(file)) {
+            edit(journal);
+        }
+        long size = Files.size(file);
+        //half a record, as left by a crash in the middle of a write
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        AirportNetwork network = recover();
+        assertEquals(2, network.airportCount());
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    void replay_shouldStopAtARecordThatCantBeApplied() throws IOException {
+        try (NetworkJournal journal = new NetworkJournal(file)) {
+            edit(journal);
+        }
+        long size = Files.size(file);
+        //intact records, but the first removes a route of an airport that doesn't exist
+        Files.write(file, record(4, "Faro", "Porto"), StandardOpenOption.APPEND);
+        Files.write(file, record(4, "Lisboa", "Porto"), StandardOpenOption.APPEND);
+
+        AirportNetwork network = recover();
+        assertEquals(2, network.airportCount());
+        assertEquals(1, network.routeCount());
+        assertEquals(size, Files.size(file));
+
+        //the journal keeps recording after the records it cut
+        try (NetworkJournal journal = new NetworkJournal(file)) {
+            network = new AirportNetwork(new PersistentGraph<>());
+            assertTrue(journal.replay(network));
+            network.setJournal(journal);
+            network.removeRoute("Lisboa", "Porto");
+        }
+        assertEquals(0, recover().routeCount());
+    }
+
+    /**
+     * Frames a record the way the journal does, with its length and CRC32
+     */
+    private static byte[] record(int type, String name1, String name2) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeByte(type);
+        out.writeUTF(name1);
+        out.writeUTF(name2);
+        byte[] bytes = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return ByteBuffer.allocate(bytes.length + 8).putInt(bytes.length).put(bytes).putInt((int) crc.getValue()).array();
+    }
+
+    @Test
+    void compaction_shouldKeepTheSameNetworkInFewerRecords() throws IOException {
+        long uncompacted;
+        try (NetworkJournal journal = new NetworkJournal(file)) {
+            AirportNetwork network = edit(journal);
+            for (int i = 0; i < 20; i++) {
+                network.removeRoute("Lisboa", "Porto");
+                network.addRoute("Lisboa", "Porto", 400 + i);
+            }
+            journal.flush();
+            uncompacted = Files.size(file);
+        }
+        Files.delete(file);
+        try (NetworkJournal journal = new NetworkJournal(file, 5)) {
+            AirportNetwork network = edit(journal);
+            for (int i = 0; i < 20; i++) {
+                network.removeRoute("Lisboa", "Porto");
+                network.addRoute("Lisboa", "Porto", 400 + i);
+            }
+        }
+        assertTrue(Files.size(file) < uncompacted);
+        AirportNetwork network = recover();
+        assertEquals(2, network.airportCount());
+        assertEquals(419, network.getEdgeBetweenTwoV(network.findAirport("Lisboa"), network.findAirport("Porto")).element().getDistance());
+    }
+
+    @Test
+    void open_shouldRejectOtherFiles() throws IOException {
+        Files.write(file, new byte[]{1, 2, 3, 4, 5});
+        assertThrows(IOException.class, () -> new NetworkJournal(file));
+    }
+}
@@ -0,0 +1,143 @@
+package model.pa.dataLoader;
+
+import model.pa.graph.Graph;
+import model.pa.graph.GraphAdjacencyMatrix;
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.Route;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Load time and allocation of the text dataset, read by DatasetLoader and by StreamingDatasetLoader,
+ * against the binary snapshot (NetworkSnapshotFile)
+ * for random networks. The first load of each format is reported on its own as the cold one.
+ * Not a unit test, run its main method by hand
+ */
+public class NetworkLoadBenchmark {
+
+    private static final String ROUTES = "routes_1.txt";
+    private static final int RUNS = 5;
+
+    private interface Load {
+        Graph<Airport, Route> run() throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        for (int size : new int[]{1000, 5000}) {
+            run(size);
+        }
+    }
+
+    /**
+     * Builds a random network with three routes per airport
+     * @param size number of airports
+     * @return the network
+     */
+    static Graph<Airport, Route> randomNetwork(int size) {
+        Random random = new Random(42);
+        Graph<Airport, Route> network = new GraphAdjacencyMatrix<>();
+        List<Vertex<Airport>> airports = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            airports.add(network.insertVertex(new Airport("Airport " + i, "A" + i, 180 * random.nextDouble() - 90,
+                    360 * random.nextDouble() - 180, random.nextInt(3000), random.nextInt(1000), random.nextInt(1000))));
+        }
+        for (int i = 0; i < size * 3; i++) {
+            Vertex<Airport> a1 = airports.get(random.nextInt(size));
+            Vertex<Airport> a2 = airports.get(random.nextInt(size));
+            if (a1 == a2 || network.areAdjacent(a1, a2)) continue;
+            network.insertEdge(a1, a2, new Route(a1.element(), a2.element(), 1 + random.nextInt(15000)));
+        }
+        return network;
+    }
+
+    /**
+     * Writes the network as a text dataset, with the file names DatasetLoader expects
+     */
+    private static void writeText(String folder, Graph<Airport, Route> network) throws IOException {
+        NumberFormat nf = NumberFormat.getInstance();
+        nf.setMaximumFractionDigits(6);
+        nf.setGroupingUsed(false);
+        try (PrintWriter names = new PrintWriter(new File(folder + "\\name.txt"));
+             PrintWriter xy = new PrintWriter(new File(folder + "\\xy.txt"));
+             PrintWriter weight = new PrintWriter(new File(folder + "\\weight.txt"))) {
+            for (Vertex<Airport> v : network.vertices()) {
+                Airport a = v.element();
+                names.println(a.getAbreviation() + "\t" + a.getName());
+                xy.println(a.getX() + "\t" + a.getY());
+                weight.println(a.getName() + "\t" + nf.format(a.getLatitude()) + "\t" + nf.format(a.getLongitude())
+                        + "\t" + a.getAltitude());
+            }
+        }
+        try (PrintWriter routes = new PrintWriter(new File(folder + "\\" + ROUTES))) {
+            network.edges().forEach(e -> routes.println(e.element().getOrigin().getAbreviation() + "\t"
+                    + e.element().getDistance() + "\t" + e.element().getDestination().getAbreviation()));
+        }
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static String measure(Load load) throws IOException {
+        long cold = 0;
+        long best = Long.MAX_VALUE;
+        long allocated = 0;
+        int routes = 0;
+        for (int i = 0; i < RUNS; i++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            Graph<Airport, Route> graph = load.run();
+            long time = System.nanoTime() - start;
+            allocated = allocatedBytes() - bytes;
+            routes = graph.numEdges();
+            if (i == 0) cold = time;
+            best = Math.min(best, time);
+        }
+        return String.format("cold %9.2f ms, warm %9.2f ms, %8.1f MB allocated, %d routes",
+                cold / 1e6, best / 1e6, allocated / 1e6, routes);
+    }
+
+    private static void run(int size) throws IOException {
+        Graph<Airport, Route> network = randomNetwork(size);
+        Path directory = Files.createTempDirectory("network-load");
+        String folder = directory.resolve("dataset").toString();
+        Files.createDirectories(Paths.get(folder));
+        Path snapshot = directory.resolve("network.snapshot");
+        writeText(folder, network);
+        NetworkSnapshotFile.write(snapshot, network, folder);
+
+        String binary = measure(() -> {
+            Graph<Airport, Route> graph = new GraphAdjacencyMatrix<>();
+            NetworkSnapshotFile.read(snapshot, graph);
+            return graph;
+        });
+        String text = measure(() -> {
+            DatasetLoader loader = new DatasetLoader(folder, ROUTES);
+            return loader.createGraph(loader.load(), new GraphAdjacencyMatrix<>());
+        });
+        String streaming = measure(() -> new StreamingDatasetLoader(folder, ROUTES).load(new GraphAdjacencyMatrix<>()));
+        System.out.printf("%5d airports (snapshot %d KB): text %s | streaming text %s | binary %s%n",
+                size, Files.size(snapshot) / 1024, text, streaming, binary);
+
+        //deepest first, so every folder is empty when it is deleted
+        try (java.util.stream.Stream<Path> files = Files.walk(directory)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+}
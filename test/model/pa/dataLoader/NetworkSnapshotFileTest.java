@@ -0,0 +1,112 @@
+package model.pa.dataLoader;
+
+import model.pa.graph.GraphAdjacencyMatrix;
+import model.pa.graph.PersistentGraph;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import model.pa.model.AirportNetworkException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkSnapshotFileTest {
+
+    Path file;
+    AirportNetwork a;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("network", ".snapshot");
+        a = new AirportNetwork();
+        a.addAirport(new Airport("Lisboa", "LIS", 38.7, -9.1, 114, 31, 25));
+        a.addAirport(new Airport("Porto", "POR", 67, 36));
+        a.addAirport(new Airport("S\u00e3o Paulo", "GRU", -23.4, -46.5, 750, 11, 60));
+        a.addRoute("Lisboa", "Porto", 400);
+        a.addRoute("Lisboa", "S\u00e3o Paulo", 7900);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void writeAndRead_shouldKeepTheNetwork() {
+        a.setFolder("dataset\\iberian");
+        a.saveSnapshot(file.toString());
+
+        AirportNetwork b = new AirportNetwork(new PersistentGraph<>());
+        b.loadSnapshot(file.toString());
+        assertEquals(3, b.airportCount());
+        assertEquals(2, b.routeCount());
+        assertEquals("dataset\\iberian", b.getFolder());
+        Airport lisboa = b.findAirport("Lisboa").element();
+        assertEquals("LIS", lisboa.getAbreviation());
+        assertEquals(38.7, lisboa.getLatitude());
+        assertEquals(114, lisboa.getAltitude());
+        assertEquals(31, lisboa.getX());
+        assertFalse(b.findAirport("Porto").element().hasCoordinates());
+        assertNotNull(b.findAirport("S\u00e3o Paulo"));
+        assertEquals(7900, b.getEdgeBetweenTwoV(b.findAirport("Lisboa"), b.findAirport("S\u00e3o Paulo")).element().getDistance());
+    }
+
+    @Test
+    void read_shouldRejectTruncatedFiles() throws IOException {
+        a.saveSnapshot(file.toString());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> NetworkSnapshotFile.read(file, new GraphAdjacencyMatrix<>()));
+        assertThrows(AirportNetworkException.class, () -> a.loadSnapshot(file.toString()));
+    }
+
+    @Test
+    void read_shouldRejectFilesWithImpossibleRoutes() throws IOException {
+        a.saveSnapshot(file.toString());
+        byte[] bytes = Files.readAllBytes(file);
+        //both routes become Lisboa - Porto, which the graph refuses to hold twice
+        ByteBuffer routes = ByteBuffer.wrap(bytes, bytes.length - 6 * Integer.BYTES, 6 * Integer.BYTES).slice();
+        routes.putInt(4, routes.getInt(0));
+        routes.putInt(12, routes.getInt(8));
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> NetworkSnapshotFile.read(file, new GraphAdjacencyMatrix<>()));
+    }
+
+    @Test
+    void loadSnapshot_shouldKeepTheNetworkIfTheFileCantBeRead() throws IOException {
+        Path journalFile = Files.createTempFile("network", ".journal");
+        Files.delete(journalFile);
+        try {
+            try (NetworkJournal journal = new NetworkJournal(journalFile)) {
+                AirportNetwork b = new AirportNetwork(new PersistentGraph<>());
+                b.setJournal(journal);
+                b.addAirport(new Airport("Lisboa", "LIS", 31, 25));
+                b.addAirport(new Airport("Porto", "POR", 67, 36));
+                b.addRoute("Lisboa", "Porto", 400);
+
+                assertThrows(AirportNetworkException.class, () -> b.loadSnapshot(file.resolveSibling("missing.snapshot").toString()));
+                Files.write(file, new byte[]{1, 2, 3});
+                assertThrows(AirportNetworkException.class, () -> b.loadSnapshot(file.toString()));
+                assertEquals(2, b.airportCount());
+                assertEquals(1, b.routeCount());
+                assertNotNull(b.findAirport("Porto"));
+            }
+            //and nothing replaced the journal with an empty network
+            AirportNetwork recovered = new AirportNetwork(new PersistentGraph<>());
+            try (NetworkJournal journal = new NetworkJournal(journalFile)) {
+                assertTrue(journal.replay(recovered));
+            }
+            assertEquals(2, recovered.airportCount());
+            assertEquals(1, recovered.routeCount());
+        } finally {
+            Files.deleteIfExists(journalFile);
+        }
+    }
+}
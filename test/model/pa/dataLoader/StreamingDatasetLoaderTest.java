@@ -0,0 +1,144 @@
+package model.pa.dataLoader;
+
+import model.pa.graph.Graph;
+import model.pa.graph.GraphAdjacencyMatrix;
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import model.pa.model.AirportNetworkException;
+import model.pa.model.Route;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingDatasetLoaderTest {
+
+    Path directory;
+    String folder;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("dataset");
+        folder = directory.resolve("luso").toString();
+        Files.createDirectories(Paths.get(folder));
+        write("name.txt", "# IATA\tCity", "LIS\tLisboa", "# A\u00e7ores", "PDL\tPonta Delgada", "OPO\tPorto");
+        write("xy.txt", "# XX\tYY", "10\t20", "30\t40", "50\t60");
+        write("weight.txt", "# Name\tlat\tlong\taltitude", "Humberto Delgado\t38,774167\t-9,134167\t114",
+                "Jo\u00e3o Paulo II\t37.741184\t-25.69787\t259", "", "Francisco S\u00e1 Carneiro\t41,2481\t-8,6814\t69");
+        write("routes_1.txt", "# Routes", "LIS\t1450\tPDL", "LIS\t274\tOPO", "OPO\t300\tLIS", "OPO\t99\tXXX");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        //deepest first, so every folder is empty when it is deleted
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+
+    /**
+     * Writes a dataset file with the name DatasetLoader builds, folder + "\\" + name
+     */
+    private void write(String name, String... lines) throws IOException {
+        Files.write(Paths.get(folder + "\\" + name), String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Airport find(Graph<Airport, Route> graph, String iata) {
+        return graph.vertices().stream().map(v -> v.element()).filter(a -> a.getAbreviation().equals(iata)).findFirst().orElse(null);
+    }
+
+    @Test
+    void load_shouldReadTheFilesInLockstep() throws IOException {
+        StreamingDatasetLoader loader = new StreamingDatasetLoader(folder, "routes_1.txt");
+        Graph<Airport, Route> graph = loader.load(new GraphAdjacencyMatrix<>());
+
+        assertEquals(3, graph.numVertices());
+        assertEquals(2, graph.numEdges());
+        assertEquals(2, loader.getSkippedRoutes());
+        Airport lisboa = find(graph, "LIS");
+        assertEquals("Lisboa", lisboa.getName());
+        assertEquals(38.774167, lisboa.getLatitude(), 1e-12);
+        assertEquals(-9.134167, lisboa.getLongitude(), 1e-12);
+        assertEquals(114, lisboa.getAltitude());
+        assertEquals(10, lisboa.getX());
+        assertEquals(-25.69787, find(graph, "PDL").getLongitude(), 1e-12);
+        assertEquals(60, find(graph, "OPO").getY());
+    }
+
+    @Test
+    void load_shouldReplaceTheGraph() throws IOException {
+        Graph<Airport, Route> graph = new GraphAdjacencyMatrix<>();
+        graph.insertVertex(new Airport("Madrid", "MAD", 1, 2));
+        new StreamingDatasetLoader(folder, "routes_1.txt").load(graph);
+        assertEquals(3, graph.numVertices());
+        assertNull(find(graph, "MAD"));
+    }
+
+    @Test
+    void load_shouldLeaveTheGraphIfAFileIsMissing() throws IOException {
+        Graph<Airport, Route> graph = new GraphAdjacencyMatrix<>();
+        graph.insertVertex(new Airport("Madrid", "MAD", 1, 2));
+        assertThrows(FileNotFoundException.class, () -> new StreamingDatasetLoader(folder, "routes_2.txt").load(graph));
+        assertEquals(1, graph.numVertices());
+        assertNotNull(find(graph, "MAD"));
+    }
+
+    @Test
+    void loadNetwork_shouldKeepTheNetworkIfTheDatasetCantBeRead() throws IOException {
+        AirportNetwork network = new AirportNetwork();
+        network.loadNetwork(folder, "routes_1.txt");
+        assertThrows(AirportNetworkException.class, () -> network.loadNetwork(folder + "-missing", "routes_1.txt"));
+        write("xy.txt", "# XX\tYY", "10\t20", "30\tforty", "50\t60");
+        assertThrows(AirportNetworkException.class, () -> network.loadNetwork(folder, "routes_1.txt"));
+
+        assertEquals(3, network.airportCount());
+        assertEquals(2, network.routeCount());
+        assertEquals(folder, network.getFolder());
+        Vertex<Airport> lisboa = network.findAirport("Lisboa");
+        assertTrue(network.getNetwork().vertices().contains(lisboa));
+        network.addRoute("Porto", "Ponta Delgada", 1500);
+        assertEquals(3, network.routeCount());
+    }
+
+    @Test
+    void load_shouldReportMalformedLines() throws IOException {
+        write("xy.txt", "# XX\tYY", "10\t20", "30\tforty", "50\t60");
+        IOException e = assertThrows(IOException.class,
+                () -> new StreamingDatasetLoader(folder, "routes_1.txt").load(new GraphAdjacencyMatrix<>()));
+        assertTrue(e.getMessage().contains("line 3"));
+
+        write("xy.txt", "# XX\tYY", "10\t20", "30\t40");
+        assertThrows(IOException.class,
+                () -> new StreamingDatasetLoader(folder, "routes_1.txt").load(new GraphAdjacencyMatrix<>()));
+    }
+
+    @Test
+    void tokenizer_shouldParseFieldsAndNumbers() {
+        TabTokenizer tokens = new TabTokenizer();
+        tokens.reset("  Ponta Delgada\t-25,69787\t 259 \t1.5e3\t+7 ");
+        assertEquals("Ponta Delgada", tokens.nextString());
+        assertEquals(-25.69787, tokens.nextDouble(), 1e-12);
+        assertEquals(259, tokens.nextInt());
+        assertEquals(1500, tokens.nextDouble());
+        assertTrue(tokens.hasNext());
+        assertEquals(7, tokens.nextInt());
+        assertFalse(tokens.hasNext());
+
+        tokens.reset("12a");
+        assertThrows(NumberFormatException.class, tokens::nextInt);
+        tokens.reset("-2147483648\t2147483648");
+        assertEquals(Integer.MIN_VALUE, tokens.nextInt());
+        assertThrows(NumberFormatException.class, tokens::nextInt);
+    }
+}
@@ -0,0 +1,59 @@
+package model.pa.dijkstra;
+
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllPairsShortestPathsTest {
+
+    AirportNetwork an;
+
+    @BeforeEach
+    void setUp() {
+        an = DijkstraBenchmark.randomNetwork(120, 3);
+        an.addAirport(new Airport("Isolated", "ISO", 0, 0));
+    }
+
+    @Test
+    void compute_shouldMatchHeapDijkstra() {
+        AllPairsShortestPaths<Airport> apsp = an.allPairsShortestPaths();
+        HeapDijkstra<Airport> dk = new HeapDijkstra<>(an.getNetwork());
+        for (Vertex<Airport> v1 : an.getNetwork().vertices()) {
+            ShortestPathTree<Airport> tree = dk.shortestPathTree(v1);
+            for (Vertex<Airport> v2 : an.getNetwork().vertices()) {
+                assertEquals(tree.getCost(v2), apsp.getCost(v1, v2));
+                assertEquals(tree.getCost(v2), apsp.result(v1, v2).getCost());
+            }
+        }
+    }
+
+    @Test
+    void diameter_shouldBeTheLargestEccentricity() {
+        AllPairsShortestPaths<Airport> apsp = an.allPairsShortestPaths();
+        double max = 0;
+        for (Vertex<Airport> v : an.getNetwork().vertices()) {
+            max = Math.max(max, apsp.eccentricity(v));
+        }
+        DijkstraConcreteResult<Airport> diameter = apsp.diameter();
+        assertEquals(max, diameter.getCost());
+        assertEquals(diameter.getCost(), apsp.getCost(diameter.getPath().get(0), diameter.getPath().get(diameter.getPath().size() - 1)));
+        assertNull(apsp.result(an.findAirport("Isolated"), diameter.getPath().get(0)).getPath());
+    }
+
+    @Test
+    void diameter_shouldMatchTheMatrixWithoutIt() {
+        DijkstraConcreteResult<Airport> expected = an.allPairsShortestPaths().diameter();
+        DijkstraConcreteResult<Airport> diameter = AllPairsShortestPaths.diameter(an.snapshot());
+        assertEquals(expected.getCost(), diameter.getCost());
+        assertEquals(expected.getPath(), diameter.getPath());
+        assertEquals(diameter.getCost(), an.farthestAirports().getCost());
+
+        AirportNetwork empty = new AirportNetwork();
+        empty.addAirport(new Airport("Alone", "ALN", 0, 0));
+        assertNull(AllPairsShortestPaths.diameter(empty.snapshot()).getPath());
+    }
+}
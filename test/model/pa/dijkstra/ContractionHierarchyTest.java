@@ -0,0 +1,139 @@
+package model.pa.dijkstra;
+
+import model.pa.graph.Edge;
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import model.pa.model.AirportNetworkException;
+import model.pa.model.Route;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    AirportNetwork an;
+
+    @BeforeEach
+    void setUp() {
+        an = DijkstraBenchmark.randomNetwork(150, 5);
+        an.addAirport(new Airport("Isolated", "ISO", 0, 0));
+    }
+
+    @Test
+    void shortestPath_shouldMatchHeapDijkstra() {
+        ContractionHierarchy<Airport> ch = an.contractionHierarchy();
+        HeapDijkstra<Airport> dk = new HeapDijkstra<>(an.getNetwork());
+        for (Vertex<Airport> v1 : an.getNetwork().vertices()) {
+            ShortestPathTree<Airport> tree = dk.shortestPathTree(v1);
+            for (Vertex<Airport> v2 : an.getNetwork().vertices()) {
+                DijkstraConcreteResult<Airport> result = ch.shortestPath(v1, v2);
+                assertEquals(tree.getCost(v2), result.getCost());
+                if (result.getPath() == null) continue;
+                assertEquals(v1, result.getPath().get(0));
+                assertEquals(v2, result.getPath().get(result.getPath().size() - 1));
+            }
+        }
+    }
+
+    @Test
+    void shortestPath_shouldSearchTheCore() {
+        AirportNetwork large = DijkstraBenchmark.randomNetwork(800, 3);
+        ContractionHierarchy<Airport> ch = large.contractionHierarchy();
+        assertTrue(ch.getCoreSize() > 0);
+        HeapDijkstra<Airport> dk = new HeapDijkstra<>(large.getNetwork());
+        List<Vertex<Airport>> airports = new ArrayList<>(large.getNetwork().vertices());
+        Random random = new Random(11);
+        for (int i = 0; i < 300; i++) {
+            Vertex<Airport> v1 = airports.get(random.nextInt(airports.size()));
+            Vertex<Airport> v2 = airports.get(random.nextInt(airports.size()));
+            assertEquals(dk.dijkstra(v1, v2).getCost(), ch.shortestPath(v1, v2).getCost());
+        }
+    }
+
+    @Test
+    void shortestPath_shouldReportEachQuerysOwnSettledCount() throws InterruptedException {
+        ContractionHierarchy<Airport> ch = an.contractionHierarchy();
+        List<Vertex<Airport>> airports = new ArrayList<>(an.getNetwork().vertices());
+        Vertex<Airport> v1 = airports.get(0);
+        assertEquals(1, ch.shortestPath(v1, v1).getSettledCount());
+        int[] expected = new int[airports.size()];
+        for (int i = 0; i < airports.size(); i++) {
+            expected[i] = ch.shortestPath(v1, airports.get(i)).getSettledCount();
+            assertTrue(expected[i] > 0);
+        }
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        for (int n = 0; n < 4; n++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < airports.size(); i++) {
+                        assertEquals(expected[i], ch.shortestPath(v1, airports.get(i)).getSettledCount());
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertTrue(failures.isEmpty(), failures.toString());
+    }
+
+    @Test
+    void shortestPathEdges_shouldUnpackToNetworkRoutes() {
+        ContractionHierarchy<Airport> ch = an.contractionHierarchy();
+        List<Vertex<Airport>> airports = new ArrayList<>(an.getNetwork().vertices());
+        for (int i = 0; i < 50; i++) {
+            Vertex<Airport> v1 = airports.get(i);
+            Vertex<Airport> v2 = airports.get(airports.size() - 2 - i);
+            List<Vertex<Airport>> path = ch.shortestPath(v1, v2).getPath();
+            List<Edge<Route, Airport>> edges = ch.shortestPathEdges(v1, v2);
+            assertEquals(path.size() - 1, edges.size());
+            int distance = 0;
+            for (int j = 0; j < edges.size(); j++) {
+                assertTrue(an.getNetwork().edges().contains(edges.get(j)));
+                assertEquals(path.get(j + 1), an.getNetwork().opposite(path.get(j), edges.get(j)));
+                distance += edges.get(j).element().getDistance();
+            }
+            assertEquals(ch.shortestPath(v1, v2).getCost(), distance);
+        }
+        assertNull(ch.shortestPathEdges(airports.get(0), an.findAirport("Isolated")));
+    }
+
+    @Test
+    void shortestPath_shouldFollowZeroDistanceRoutes() {
+        AirportNetwork zero = new AirportNetwork();
+        for (String name : new String[]{"A", "B", "C"}) zero.addAirport(new Airport(name, name, 0, 0));
+        zero.addRoute("A", "B", 0);
+        zero.addRoute("B", "C", 0);
+
+        ContractionHierarchy<Airport> ch = zero.contractionHierarchy();
+        DijkstraConcreteResult<Airport> result = ch.shortestPath(zero.findAirport("A"), zero.findAirport("C"));
+        assertEquals(0, result.getCost());
+        assertEquals(3, result.getPath().size());
+        assertEquals(new HeapDijkstra<>(zero.getNetwork()).dijkstra(zero.findAirport("A"), zero.findAirport("C")).getCost(),
+                result.getCost());
+    }
+
+    @Test
+    void contractionHierarchy_shouldBeRebuiltAfterChanges() throws AirportNetworkException {
+        ContractionHierarchy<Airport> ch = an.contractionHierarchy();
+        assertSame(ch, an.contractionHierarchy());
+        Vertex<Airport> isolated = an.findAirport("Isolated");
+        an.addRoute(isolated, an.findAirport("Airport 0"), 10);
+
+        ContractionHierarchy<Airport> rebuilt = an.contractionHierarchy();
+        assertNotSame(ch, rebuilt);
+        assertEquals(10, rebuilt.shortestPath(isolated, an.findAirport("Airport 0")).getCost());
+        assertEquals(an.shortestPath("Isolated", "Airport 1", SearchMode.DIJKSTRA).getCost(),
+                an.shortestPath("Isolated", "Airport 1", SearchMode.CONTRACTION_HIERARCHY).getCost());
+    }
+}
@@ -0,0 +1,139 @@
+package model.pa.dijkstra;
+
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Side by side timing of DijkstraResult, HeapDijkstra, A*, ALT, bidirectional Dijkstra and contraction hierarchy
+ * queries on random networks.
+ * Not a unit test, run its main method by hand
+ */
+public class DijkstraBenchmark {
+
+    private static final int QUERIES = 200;
+
+    public static void main(String[] args) {
+        for (int size : new int[]{250, 1000, 3000}) {
+            run(size);
+        }
+    }
+
+    /**
+     * Builds a random connected network with the given number of airports.
+     * Airports are spread over the globe and routes are a bit longer than the great-circle distance
+     * @param size number of airports
+     * @param seed seed of the random generator
+     * @return the network
+     */
+    public static AirportNetwork randomNetwork(int size, long seed) {
+        Random random = new Random(seed);
+        AirportNetwork network = new AirportNetwork();
+        List<Vertex<Airport>> airports = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            double latitude = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+            double longitude = 360 * random.nextDouble() - 180;
+            airports.add(network.addAirport(new Airport("Airport " + i, "A" + i, latitude, longitude, 0,
+                    random.nextInt(1000), random.nextInt(1000))));
+        }
+        for (int i = 1; i < size; i++) {
+            addRandomRoute(network, random, airports.get(i), airports.get(random.nextInt(i)));
+        }
+        for (int i = 0; i < size * 2; i++) {
+            Vertex<Airport> a1 = airports.get(random.nextInt(size));
+            Vertex<Airport> a2 = airports.get(random.nextInt(size));
+            if (a1 == a2 || network.getNetwork().areAdjacent(a1, a2)) continue;
+            addRandomRoute(network, random, a1, a2);
+        }
+        return network;
+    }
+
+    private static void addRandomRoute(AirportNetwork network, Random random, Vertex<Airport> a1, Vertex<Airport> a2) {
+        double greatCircle = a1.element().distanceTo(a2.element());
+        network.addRoute(a1, a2, 1 + (int) (greatCircle * (1 + 0.2 * random.nextDouble())));
+    }
+
+    private static void run(int size) {
+        AirportNetwork network = randomNetwork(size, 42);
+        List<Vertex<Airport>> airports = new ArrayList<>(network.getNetwork().vertices());
+        Random random = new Random(7);
+        int[][] queries = new int[QUERIES][2];
+        for (int[] q : queries) {
+            q[0] = random.nextInt(size);
+            q[1] = random.nextInt(size);
+        }
+
+        DijkstraResult<Airport> linear = new DijkstraResult<>(network.getNetwork());
+        HeapDijkstra<Airport> heap = new HeapDijkstra<>(network.getNetwork());
+
+        long start = System.nanoTime();
+        double checksumLinear = 0;
+        for (int[] q : queries) checksumLinear += linear.dijkstra(airports.get(q[0]), airports.get(q[1])).getCost();
+        long linearTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        double checksumHeap = 0;
+        long settledHeap = 0;
+        for (int[] q : queries) {
+            checksumHeap += heap.dijkstra(airports.get(q[0]), airports.get(q[1])).getCost();
+            settledHeap += heap.getSettledCount();
+        }
+        long heapTime = System.nanoTime() - start;
+
+        GreatCircleHeuristic greatCircle = new GreatCircleHeuristic(network.getNetwork());
+        start = System.nanoTime();
+        double checksumAStar = 0;
+        long settledAStar = 0;
+        for (int[] q : queries) {
+            checksumAStar += heap.aStar(airports.get(q[0]), airports.get(q[1]), greatCircle).getCost();
+            settledAStar += heap.getSettledCount();
+        }
+        long aStarTime = System.nanoTime() - start;
+
+        LandmarkHeuristic<Airport> landmarks = network.landmarkHeuristic();
+        start = System.nanoTime();
+        double checksumAlt = 0;
+        long settledAlt = 0;
+        for (int[] q : queries) {
+            checksumAlt += heap.aStar(airports.get(q[0]), airports.get(q[1]), landmarks).getCost();
+            settledAlt += heap.getSettledCount();
+        }
+        long altTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        double checksumBidirectional = 0;
+        long settledBidirectional = 0;
+        for (int[] q : queries) {
+            checksumBidirectional += heap.bidirectional(airports.get(q[0]), airports.get(q[1])).getCost();
+            settledBidirectional += heap.getSettledCount();
+        }
+        long bidirectionalTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        ContractionHierarchy<Airport> ch = network.contractionHierarchy();
+        long buildTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        double checksumCH = 0;
+        long settledCH = 0;
+        for (int[] q : queries) {
+            DijkstraConcreteResult<Airport> result = ch.shortestPath(airports.get(q[0]), airports.get(q[1]));
+            checksumCH += result.getCost();
+            settledCH += result.getSettledCount();
+        }
+        long chTime = System.nanoTime() - start;
+
+        System.out.printf("%5d airports, %d queries: DijkstraResult %8.2f ms | HeapDijkstra %8.2f ms, %6d settled/query"
+                        + " | A* %8.2f ms, %6d settled/query | ALT %8.2f ms, %6d settled/query | bidirectional %8.2f ms, %6d settled/query"
+                        + " | CH %8.2f ms (build %8.2f ms, %d shortcuts), %6d settled/query | same costs: %b%n",
+                size, QUERIES, linearTime / 1e6, heapTime / 1e6, settledHeap / QUERIES, aStarTime / 1e6,
+                settledAStar / QUERIES, altTime / 1e6, settledAlt / QUERIES, bidirectionalTime / 1e6, settledBidirectional / QUERIES,
+                chTime / 1e6, buildTime / 1e6, ch.getShortcutCount(), settledCH / QUERIES,
+                checksumLinear == checksumHeap && checksumHeap == checksumAStar && checksumAStar == checksumAlt
+                        && checksumAlt == checksumBidirectional
+                        && checksumBidirectional == checksumCH);
+    }
+}
@@ -0,0 +1,148 @@
+package model.pa.dijkstra;
+
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeapDijkstraTest {
+
+    AirportNetwork an;
+    HeapDijkstra<Airport> dk;
+
+    @BeforeEach
+    void setUp() {
+        an = new AirportNetwork();
+        dk = new HeapDijkstra<>(an.getNetwork());
+
+        Vertex<Airport> a1 = an.addAirport(new Airport("Airport 1", "A1", 3, 2));
+        Vertex<Airport> a2 = an.addAirport(new Airport("Airport 2", "A2", 0, 0));
+        Vertex<Airport> a3 = an.addAirport(new Airport("Airport 3", "A3", 2, 2));
+        Vertex<Airport> a4 = an.addAirport(new Airport("Airport 4", "A4", 1, 10));
+        Vertex<Airport> a5 = an.addAirport(new Airport("Airport 5", "A5", 5, 0));
+        Vertex<Airport> a6 = an.addAirport(new Airport("Airport 6", "A6", 5, 0));
+        Vertex<Airport> a7 = an.addAirport(new Airport("Airport 7", "A7", 5, 0));
+        an.addAirport(new Airport("Airport 8", "A8", 5, 0));
+
+        an.addRoute(a1, a2, 1);
+        an.addRoute(a3, a4, 1);
+        an.addRoute(a1, a6, 5);
+        an.addRoute(a6, a5, 2);
+        an.addRoute(a7, a5, 2);
+        an.addRoute(a2, a5, 3);
+        an.addRoute(a3, a5, 3);
+        an.addRoute(a4, a7, 5);
+    }
+
+    @Test
+    void dijkstraTest() {
+        LinkedList<Vertex<Airport>> list = new LinkedList<>();
+        list.add(an.findAirport("Airport 1"));
+        list.add(an.findAirport("Airport 2"));
+        list.add(an.findAirport("Airport 5"));
+        list.add(an.findAirport("Airport 3"));
+        list.add(an.findAirport("Airport 4"));
+
+        DijkstraConcreteResult<Airport> result = dk.dijkstra(an.findAirport("Airport 1"), an.findAirport("Airport 4"));
+        assertEquals(list, result.getPath());
+        assertEquals(8, result.getCost());
+    }
+
+    @Test
+    void dijkstra_shouldMatchDijkstraResult() {
+        DijkstraResult<Airport> old = new DijkstraResult<>(an.getNetwork());
+        for (Vertex<Airport> v1 : an.getNetwork().vertices()) {
+            for (Vertex<Airport> v2 : an.getNetwork().vertices()) {
+                if (v1.element().getName().equals("Airport 8") || v2.element().getName().equals("Airport 8")) continue;
+                assertEquals(old.dijkstra(v1, v2).getCost(), dk.dijkstra(v1, v2).getCost());
+            }
+        }
+    }
+
+    @Test
+    void shortestPathTree_shouldMatchPointToPointRuns() {
+        Vertex<Airport> a1 = an.findAirport("Airport 1");
+        ShortestPathTree<Airport> tree = dk.shortestPathTree(a1);
+        assertEquals(7, tree.getReachedVertices().size());
+        assertFalse(tree.isReachable(an.findAirport("Airport 8")));
+        for (Vertex<Airport> v : tree.getReachedVertices()) {
+            DijkstraConcreteResult<Airport> result = dk.dijkstra(a1, v);
+            assertEquals(result.getCost(), tree.getCost(v));
+            assertEquals(result.getCost(), tree.resultTo(v).getCost());
+        }
+    }
+
+    @Test
+    void snapshotShortestPathTree_shouldMatchHeapDijkstra() {
+        for (Vertex<Airport> v1 : an.getNetwork().vertices()) {
+            ShortestPathTree<Airport> tree = dk.shortestPathTree(v1);
+            ShortestPathTree<Airport> frozen = SnapshotDijkstra.shortestPathTree(an.snapshot(), v1);
+            assertEquals(tree.getReachedVertices().size(), frozen.getReachedVertices().size());
+            for (Vertex<Airport> v2 : an.getNetwork().vertices()) {
+                assertEquals(tree.getCost(v2), frozen.getCost(v2));
+                if (frozen.isReachable(v2)) assertEquals(v2, frozen.getPath(v2).get(frozen.getPath(v2).size() - 1));
+            }
+        }
+    }
+
+    @Test
+    void aStar_shouldMatchDijkstra_andSettleFewerVertices() {
+        AirportNetwork network = DijkstraBenchmark.randomNetwork(300, 11);
+        HeapDijkstra<Airport> engine = new HeapDijkstra<>(network.getNetwork());
+        GreatCircleHeuristic greatCircle = new GreatCircleHeuristic(network.getNetwork());
+        assertTrue(greatCircle.isUsable());
+        long settledDijkstra = 0, settledAStar = 0;
+        for (int i = 0; i < 300; i += 7) {
+            Vertex<Airport> v1 = network.findAirport("Airport " + i);
+            Vertex<Airport> v2 = network.findAirport("Airport " + (299 - i));
+            double cost = engine.dijkstra(v1, v2).getCost();
+            settledDijkstra += engine.getSettledCount();
+            assertEquals(cost, engine.aStar(v1, v2, greatCircle).getCost());
+            settledAStar += engine.getSettledCount();
+        }
+        assertTrue(settledAStar < settledDijkstra);
+    }
+
+    @Test
+    void aStar_shouldFallBackToDijkstra_withoutCoordinates() {
+        GreatCircleHeuristic greatCircle = new GreatCircleHeuristic(an.getNetwork());
+        assertFalse(greatCircle.isUsable());
+        assertEquals(8, an.shortestPath("Airport 1", "Airport 4", SearchMode.A_STAR).getCost());
+    }
+
+    @Test
+    void bidirectional_shouldMatchDijkstra() {
+        assertEquals(dk.dijkstra(an.findAirport("Airport 1"), an.findAirport("Airport 4")).getPath(),
+                dk.bidirectional(an.findAirport("Airport 1"), an.findAirport("Airport 4")).getPath());
+
+        AirportNetwork network = DijkstraBenchmark.randomNetwork(300, 5);
+        HeapDijkstra<Airport> engine = new HeapDijkstra<>(network.getNetwork());
+        for (int i = 0; i < 300; i += 7) {
+            Vertex<Airport> v1 = network.findAirport("Airport " + i);
+            Vertex<Airport> v2 = network.findAirport("Airport " + (299 - i));
+            DijkstraConcreteResult<Airport> expected = engine.dijkstra(v1, v2);
+            DijkstraConcreteResult<Airport> result = engine.bidirectional(v1, v2);
+            assertEquals(expected.getCost(), result.getCost());
+            assertEquals(expected.getPath(), result.getPath());
+        }
+    }
+
+    @Test
+    void bidirectional_shouldReturnNullPath_ifUnreachable() {
+        assertNull(dk.bidirectional(an.findAirport("Airport 1"), an.findAirport("Airport 8")).getPath());
+        assertEquals(0, dk.bidirectional(an.findAirport("Airport 8"), an.findAirport("Airport 8")).getCost());
+    }
+
+    @Test
+    void dijkstra_shouldReturnNullPath_ifUnreachable() {
+        DijkstraConcreteResult<Airport> result = dk.dijkstra(an.findAirport("Airport 1"), an.findAirport("Airport 8"));
+        assertNull(result.getPath());
+        assertEquals(Double.MAX_VALUE, result.getCost());
+        assertEquals(1, dk.dijkstra(an.findAirport("Airport 8"), an.findAirport("Airport 8")).getPath().size());
+    }
+}
@@ -0,0 +1,77 @@
+package model.pa.dijkstra;
+
+import model.pa.graph.GraphSnapshot;
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import model.pa.model.Route;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LandmarkHeuristicTest {
+
+    AirportNetwork an;
+
+    @BeforeEach
+    void setUp() {
+        an = DijkstraBenchmark.randomNetwork(150, 11);
+        an.addAirport(new Airport("Isolated", "ISO", 0, 0));
+    }
+
+    @Test
+    void estimate_shouldNeverExceedTheDistance() {
+        LandmarkHeuristic<Airport> alt = an.landmarkHeuristic();
+        assertEquals(LandmarkHeuristic.DEFAULT_LANDMARKS, alt.getLandmarks().size());
+        assertTrue(alt.getLandmarks().contains(an.findAirport("Isolated")));
+        HeapDijkstra<Airport> dk = new HeapDijkstra<>(an.getNetwork());
+        for (Vertex<Airport> v1 : an.getNetwork().vertices()) {
+            ShortestPathTree<Airport> tree = dk.shortestPathTree(v1);
+            for (Vertex<Airport> v2 : tree.getReachedVertices()) {
+                assertTrue(alt.estimate(v1, v2) <= tree.getCost(v2));
+            }
+        }
+    }
+
+    @Test
+    void aStar_withLandmarks_shouldMatchDijkstra() {
+        HeapDijkstra<Airport> dk = new HeapDijkstra<>(an.getNetwork());
+        LandmarkHeuristic<Airport> alt = an.landmarkHeuristic();
+        List<Vertex<Airport>> airports = new ArrayList<>(an.getNetwork().vertices());
+        long settledDijkstra = 0, settledAlt = 0;
+        for (int i = 0; i < 100; i++) {
+            Vertex<Airport> v1 = airports.get(i);
+            Vertex<Airport> v2 = airports.get(airports.size() - 2 - i);
+            double cost = dk.dijkstra(v1, v2).getCost();
+            settledDijkstra += dk.getSettledCount();
+            assertEquals(cost, dk.aStar(v1, v2, alt).getCost());
+            settledAlt += dk.getSettledCount();
+        }
+        assertTrue(settledAlt < settledDijkstra);
+    }
+
+    @Test
+    void landmarkHeuristic_shouldKeepLandmarksWhenOnlyRoutesChange() {
+        LandmarkHeuristic<Airport> alt = an.landmarkHeuristic();
+        assertSame(alt, an.landmarkHeuristic());
+        an.addRoute(an.findAirport("Isolated"), an.findAirport("Airport 0"), 10);
+
+        LandmarkHeuristic<Airport> rebuilt = an.landmarkHeuristic();
+        assertNotSame(alt, rebuilt);
+        assertEquals(alt.getLandmarks(), rebuilt.getLandmarks());
+        assertEquals(an.shortestPath("Isolated", "Airport 1", SearchMode.DIJKSTRA).getCost(),
+                an.shortestPath("Isolated", "Airport 1", SearchMode.ALT).getCost());
+    }
+
+    @Test
+    void build_withMissingLandmark_shouldSkipIt() {
+        GraphSnapshot<Airport, Route> snapshot = GraphSnapshot.of(an.getNetwork(), Route::getDistance);
+        List<Vertex<Airport>> landmarks = new ArrayList<>(LandmarkHeuristic.build(snapshot, 3).getLandmarks());
+        landmarks.add(new AirportNetwork().addAirport(new Airport("Elsewhere", "ELS", 0, 0)));
+        assertEquals(3, LandmarkHeuristic.build(snapshot, landmarks).getLandmarks().size());
+    }
+}
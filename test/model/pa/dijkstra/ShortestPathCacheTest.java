@@ -0,0 +1,93 @@
+package model.pa.dijkstra;
+
+import model.pa.graph.Vertex;
+import model.pa.model.Airport;
+import model.pa.model.AirportNetwork;
+import model.pa.model.AirportNetworkException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortestPathCacheTest {
+
+    AirportNetwork an;
+    Vertex<Airport> a1, a2, a3, a4, a5;
+
+    @BeforeEach
+    void setUp() {
+        an = new AirportNetwork();
+        a1 = an.addAirport(new Airport("Airport 1", "A1", 0, 0));
+        a2 = an.addAirport(new Airport("Airport 2", "A2", 0, 0));
+        a3 = an.addAirport(new Airport("Airport 3", "A3", 0, 0));
+        a4 = an.addAirport(new Airport("Airport 4", "A4", 0, 0));
+        a5 = an.addAirport(new Airport("Airport 5", "A5", 0, 0));
+
+        an.addRoute(a1, a2, 1);
+        an.addRoute(a2, a3, 1);
+        an.addRoute(a3, a4, 1);
+        an.addRoute(a1, a4, 5);
+    }
+
+    @Test
+    void shortestPath_shouldReuseTheTreeOfTheOrigin() {
+        ShortestPathCache<Airport> cache = an.getPathCache();
+        assertEquals(2, an.shortestPath("Airport 1", "Airport 3").getCost());
+        assertEquals(3, an.shortestPath("Airport 1", "Airport 4").getCost());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(0, an.getLastSettledCount());
+    }
+
+    @Test
+    void get_shouldEvictTheLeastRecentlyUsedTree() {
+        ShortestPathCache<Airport> cache = new ShortestPathCache<>(2);
+        HeapDijkstra<Airport> dk = new HeapDijkstra<>(an.getNetwork());
+        cache.put(dk.shortestPathTree(a1));
+        cache.put(dk.shortestPathTree(a2));
+        assertNotNull(cache.get(a1));
+        cache.put(dk.shortestPathTree(a3));
+
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(a2));
+        assertNotNull(cache.get(a1));
+        assertNotNull(cache.get(a3));
+    }
+
+    @Test
+    void addRoute_shouldOnlyDropTreesItShortens() {
+        an.shortestPathTree("Airport 1");
+        an.shortestPathTree("Airport 5");
+        an.addRoute(a2, a4, 1);
+
+        ShortestPathCache<Airport> cache = an.getPathCache();
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(2, an.shortestPath("Airport 1", "Airport 4").getCost());
+        an.addRoute(a1, a3, 5);
+        assertEquals(1, cache.getInvalidations());
+        an.addRoute(a5, a4, 1);
+        assertEquals(3, cache.getInvalidations());
+        assertEquals(3, an.shortestPath("Airport 5", "Airport 1").getCost());
+    }
+
+    @Test
+    void removeRoute_shouldOnlyDropTreesThatUseIt() {
+        an.shortestPathTree("Airport 1");
+        an.shortestPathTree("Airport 3");
+        an.removeRoute("Airport 1", "Airport 4");
+        assertEquals(0, an.getPathCache().getInvalidations());
+
+        an.removeRoute("Airport 2", "Airport 3");
+        assertEquals(2, an.getPathCache().getInvalidations());
+        assertThrows(AirportNetworkException.class, () -> an.shortestPath("Airport 1", "Airport 4"));
+    }
+
+    @Test
+    void removeAirport_shouldDropTreesThatReachIt() {
+        an.shortestPathTree("Airport 1");
+        an.shortestPathTree("Airport 5");
+        an.removeAirport("Airport 3");
+        assertEquals(1, an.getPathCache().getInvalidations());
+        assertEquals(5, an.shortestPath("Airport 1", "Airport 4").getCost());
+    }
+}
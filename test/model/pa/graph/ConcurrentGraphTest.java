@@ -0,0 +1,149 @@
+package model.pa.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentGraphTest {
+
+    ConcurrentGraph<String, String> graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = new ConcurrentGraph<>();
+
+        Vertex<String> vA = graph.insertVertex("A");
+        Vertex<String> vB = graph.insertVertex("B");
+        Vertex<String> vC = graph.insertVertex("C");
+        Vertex<String> vD = graph.insertVertex("D");
+        Vertex<String> vE = graph.insertVertex("E");
+
+        graph.insertEdge(vA, vB, "e1");
+        graph.insertEdge(vA, vC, "e2");
+        graph.insertEdge(vC, vB, "e3");
+        graph.insertEdge(vE, vD, "e4");
+        graph.insertEdge(vE, vC, "e5");
+    }
+
+    @Test
+    void insertAndRemove_shouldBehaveLikeTheAdjacencyMatrix() {
+        assertEquals(5, graph.numVertices());
+        assertEquals(5, graph.numEdges());
+        assertEquals(3, graph.degree(graph.findVertex("C")));
+        assertThrows(InvalidVertexException.class, () -> graph.insertVertex("A"));
+        assertThrows(InvalidEdgeException.class, () -> graph.insertEdge("A", "D", "e1"));
+
+        graph.removeVertex(graph.findVertex("C"));
+        assertEquals(4, graph.numVertices());
+        assertEquals(2, graph.numEdges());
+        assertEquals(1, graph.degree(graph.findVertex("A")));
+        assertNull(graph.findEdge("e3"));
+
+        Edge<String, String> e1 = graph.findEdge("e1");
+        assertEquals("e1", graph.removeEdge(e1));
+        assertThrows(InvalidEdgeException.class, () -> graph.removeEdge(e1));
+        assertEquals(0, graph.degree(graph.findVertex("A")));
+    }
+
+    @Test
+    void replace_shouldKeepLookupsConsistent() {
+        Vertex<String> vA = graph.findVertex("A");
+        graph.replace(vA, "Z");
+        assertSame(vA, graph.findVertex("Z"));
+        assertNull(graph.findVertex("A"));
+        assertThrows(InvalidVertexException.class, () -> graph.replace(vA, "B"));
+
+        Edge<String, String> e1 = graph.findEdge("e1");
+        graph.replace(e1, "e9");
+        assertSame(e1, graph.findEdge("e9"));
+        assertThrows(InvalidEdgeException.class, () -> graph.replace(e1, "e2"));
+    }
+
+    @Test
+    void concurrentReadersAndWriters_shouldKeepAdjacencySymmetric() throws Exception {
+        int size = 40;
+        for (int i = 0; i < size; i++) graph.insertVertex("V" + i);
+
+        int writers = 4, readers = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(writers + readers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Future<?>> writerTasks = new ArrayList<>();
+
+        for (int t = 0; t < writers; t++) {
+            int id = t;
+            writerTasks.add(pool.submit(() -> {
+                Random random = new Random(id);
+                start.await();
+                for (int i = 0; i < 5000; i++) {
+                    String u = "V" + random.nextInt(size);
+                    String v = "V" + random.nextInt(size);
+                    try {
+                        int op = random.nextInt(100);
+                        if (op < 55) {
+                            graph.insertEdge(graph.findVertex(u), graph.findVertex(v), "w" + id + "-" + i);
+                        } else if (op < 98) {
+                            Collection<Edge<String, String>> incident = graph.incidentEdges(graph.findVertex(u));
+                            if (!incident.isEmpty()) graph.removeEdge(incident.iterator().next());
+                        } else {
+                            graph.removeVertex(graph.findVertex(u));
+                            graph.insertVertex(u);
+                        }
+                    } catch (InvalidVertexException | InvalidEdgeException e) {
+                        //lost a race with another writer, expected
+                    }
+                }
+                return null;
+            }));
+        }
+        for (int t = 0; t < readers; t++) {
+            pool.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    for (Vertex<String> v : graph.vertices()) {
+                        try {
+                            graph.forEachIncident(v, (e, opposite) -> {
+                                Vertex<String>[] ends = e.vertices();
+                                if (!(ends[0] == v && ends[1] == opposite || ends[1] == v && ends[0] == opposite)) {
+                                    failure.compareAndSet(null, new AssertionError("Wrong opposite for " + e));
+                                }
+                            });
+                        } catch (InvalidVertexException e) {
+                            //removed by a writer
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        for (Future<?> f : writerTasks) f.get(60, TimeUnit.SECONDS);
+        writing.set(false);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+        assertNull(failure.get());
+
+        Set<Edge<String, String>> seen = new HashSet<>();
+        for (Vertex<String> v : graph.vertices()) {
+            assertSame(v, graph.findVertex(v.element()));
+            graph.forEachIncident(v, (e, opposite) -> {
+                assertTrue(graph.areAdjacent(opposite, v));
+                assertSame(e, graph.findEdge(e.element()));
+                seen.add(e);
+            });
+        }
+        assertEquals(new HashSet<>(graph.edges()), seen);
+        assertEquals(graph.numEdges(), seen.size());
+        assertEquals(size + 5, graph.numVertices());
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -98,6 +99,25 @@ class GraphAdjacencyMatrixTest<V, E> {
         assertEquals(2, new ArrayList<>(graph.edges()).size());
     }
 
+    @Test
+    void removeVertex_shouldRemoveIncidentEdges() {
+        graph.removeVertex(graph.findVertex("C"));
+        assertEquals(2, graph.numEdges());
+        assertNull(graph.findEdge("e2"));
+        assertFalse(graph.existsEdgeWith("e5"));
+        assertTrue(graph.existsEdgeWith("e1"));
+        assertThrows(UnsupportedOperationException.class, () -> graph.edges().clear());
+    }
+
+    @Test
+    void copy_shouldNotShareEdgesWithOriginal() {
+        GraphAdjacencyMatrix<String, String> copy = new GraphAdjacencyMatrix<>(graph);
+        graph.removeEdge(graph.findEdge("e1"));
+        assertEquals(4, graph.numEdges());
+        assertEquals(5, copy.numEdges());
+        assertTrue(copy.areAdjacent(copy.findVertex("A"), copy.findVertex("B")));
+    }
+
     @Test
     void opposite_shouldReturnTheVertexOpposite() {
         assertEquals(graph.findVertex("B"), graph.opposite(graph.findVertex("A"), graph.findEdge("e1")));
@@ -120,6 +140,28 @@ class GraphAdjacencyMatrixTest<V, E> {
         assertEquals(0, new ArrayList(graph.incidentEdges(graph.findVertex("A"))).size());
     }
 
+    @Test
+    void degree_shouldMatchIncidentEdges() {
+        for (Vertex<String> v : graph.vertices()) {
+            assertEquals(graph.incidentEdges(v).size(), graph.degree(v));
+        }
+        graph.removeEdge(graph.findEdge("e2"));
+        assertEquals(1, graph.degree(graph.findVertex("A")));
+    }
+
+    @Test
+    void forEachIncident_shouldVisitIncidentEdgesWithOpposite() {
+        for (Vertex<String> v : graph.vertices()) {
+            List<Edge<String, String>> visited = new ArrayList<>();
+            graph.forEachIncident(v, (e, opposite) -> {
+                assertSame(graph.opposite(v, e), opposite);
+                visited.add(e);
+            });
+            assertEquals(new HashSet<>(graph.incidentEdges(v)), new HashSet<>(visited));
+            assertEquals(graph.degree(v), visited.size());
+        }
+    }
+
     @Test
     void areAdjacent_shouldReturnTrue_ifAreAdjacent() {
         assertTrue(graph.areAdjacent(graph.findVertex("C"), graph.findVertex("B")));
@@ -151,6 +193,17 @@ class GraphAdjacencyMatrixTest<V, E> {
         assertFalse(graph.existsVertexWith("Y"));
     }
 
+    @Test
+    void replace_shouldKeepVertexLookupConsistent() {
+        Vertex<String> vA = graph.findVertex("A");
+        graph.replace(vA, "Z");
+        assertSame(vA, graph.findVertex("Z"));
+        assertNull(graph.findVertex("A"));
+        assertThrows(InvalidVertexException.class, () -> graph.replace(vA, "B"));
+        graph.insertVertex("A");
+        assertNotSame(vA, graph.findVertex("A"));
+    }
+
     @Test
     void replace_shouldReturnTrue_ifEdgesIsReplaced() {
         graph.replace(graph.findEdge("e1"), "e9");
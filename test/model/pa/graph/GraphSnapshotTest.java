@@ -0,0 +1,67 @@
+package model.pa.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphSnapshotTest {
+
+    GraphAdjacencyMatrix<String, String> graph;
+    GraphSnapshot<String, String> snapshot;
+
+    @BeforeEach
+    void setUp() {
+        graph = new GraphAdjacencyMatrix<>();
+
+        Vertex<String> vA = graph.insertVertex("A");
+        Vertex<String> vB = graph.insertVertex("B");
+        Vertex<String> vC = graph.insertVertex("C");
+        Vertex<String> vD = graph.insertVertex("D");
+        Vertex<String> vE = graph.insertVertex("E");
+        graph.insertVertex("F");
+
+        graph.insertEdge(vA, vB, "e1");
+        graph.insertEdge(vA, vC, "e2");
+        graph.insertEdge(vC, vB, "e3");
+        graph.insertEdge(vE, vD, "e4");
+        graph.insertEdge(vE, vC, "e5");
+
+        snapshot = GraphSnapshot.of(graph, String::length);
+    }
+
+    @Test
+    void of_shouldCopyVerticesAndIncidentEdges() {
+        assertEquals(graph.numVertices(), snapshot.numVertices());
+        assertEquals(graph.numEdges(), snapshot.numEdges());
+        for (Vertex<String> v : graph.vertices()) {
+            int id = snapshot.id(v);
+            assertSame(v, snapshot.vertex(id));
+            assertEquals(graph.incidentEdges(v).size(), snapshot.degree(id));
+            for (int slot = snapshot.offset(id); slot < snapshot.offset(id + 1); slot++) {
+                assertSame(graph.opposite(v, snapshot.edge(slot)), snapshot.vertex(snapshot.target(slot)));
+                assertEquals(2, snapshot.weight(slot));
+            }
+        }
+    }
+
+    @Test
+    void of_shouldNotSeeLaterChanges() {
+        graph.insertVertex("G");
+        graph.removeEdge(graph.incidentEdges(snapshot.vertex(0)).iterator().next());
+        assertEquals(6, snapshot.numVertices());
+        assertEquals(5, snapshot.numEdges());
+        assertEquals(2, snapshot.degree(0));
+    }
+
+    @Test
+    void DFS_shouldReachTheSameVerticesAsTheGraph() {
+        for (Vertex<String> v : graph.vertices()) {
+            assertEquals(new HashSet<>(graph.DFS(v)), new HashSet<>(snapshot.DFS(v)));
+            assertSame(v, snapshot.DFS(v).get(0));
+        }
+        assertEquals(1, snapshot.DFS(snapshot.vertex(5)).size());
+    }
+}
@@ -0,0 +1,110 @@
+package model.pa.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentGraphTest {
+
+    PersistentGraph<String, String> graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = new PersistentGraph<>();
+
+        Vertex<String> vA = graph.insertVertex("A");
+        Vertex<String> vB = graph.insertVertex("B");
+        Vertex<String> vC = graph.insertVertex("C");
+        Vertex<String> vD = graph.insertVertex("D");
+        Vertex<String> vE = graph.insertVertex("E");
+
+        graph.insertEdge(vA, vB, "e1");
+        graph.insertEdge(vA, vC, "e2");
+        graph.insertEdge(vC, vB, "e3");
+        graph.insertEdge(vE, vD, "e4");
+        graph.insertEdge(vE, vC, "e5");
+    }
+
+    @Test
+    void insertAndRemove_shouldBehaveLikeTheAdjacencyMatrix() {
+        assertEquals(5, graph.numVertices());
+        assertEquals(5, graph.numEdges());
+        assertEquals(3, graph.degree(graph.findVertex("C")));
+        assertTrue(graph.areAdjacent(graph.findVertex("B"), graph.findVertex("A")));
+        assertThrows(InvalidVertexException.class, () -> graph.insertVertex("A"));
+        assertThrows(InvalidEdgeException.class, () -> graph.insertEdge("A", "D", "e1"));
+
+        graph.removeVertex(graph.findVertex("C"));
+        assertEquals(4, graph.numVertices());
+        assertEquals(2, graph.numEdges());
+        assertEquals(1, graph.degree(graph.findVertex("A")));
+        assertNull(graph.findEdge("e3"));
+
+        Edge<String, String> e1 = graph.findEdge("e1");
+        assertEquals("e1", graph.removeEdge(e1));
+        assertThrows(InvalidEdgeException.class, () -> graph.removeEdge(e1));
+        assertEquals(0, graph.degree(graph.findVertex("A")));
+    }
+
+    @Test
+    void snapshot_shouldNotSeeLaterEdits() {
+        PersistentGraph<String, String> before = graph.snapshot();
+        Vertex<String> vC = graph.findVertex("C");
+        graph.removeVertex(vC);
+        graph.insertEdge("A", "D", "e6");
+
+        assertEquals(5, before.numVertices());
+        assertEquals(5, before.numEdges());
+        assertEquals(3, before.degree(vC));
+        assertNull(before.findEdge("e6"));
+        assertThrows(InvalidVertexException.class, () -> graph.degree(vC));
+
+        //and the snapshot can be edited without touching the graph
+        before.removeEdge(before.findEdge("e1"));
+        assertNotNull(graph.findEdge("e1"));
+    }
+
+    @Test
+    void forEachIncident_shouldVisitEachEdgeWithItsOpposite() {
+        Vertex<String> vC = graph.findVertex("C");
+        Map<String, String> seen = new HashMap<>();
+        graph.forEachIncident(vC, (e, w) -> seen.put(e.element(), w.element()));
+
+        Map<String, String> expected = new HashMap<>();
+        for (Edge<String, String> e : graph.incidentEdges(vC)) expected.put(e.element(), graph.opposite(vC, e).element());
+        assertEquals(expected, seen);
+        assertEquals(3, seen.size());
+    }
+
+    @Test
+    void vertices_andEdges_shouldFollowInsertionOrder() {
+        graph.removeVertex(graph.findVertex("B"));
+        graph.insertVertex("B");
+        graph.insertEdge(graph.findVertex("B"), graph.findVertex("D"), "e6");
+        PersistentGraph<String, String> copy = graph.snapshot();
+        copy.insertVertex("F");
+
+        List<String> vertices = new ArrayList<>();
+        for (Vertex<String> v : graph.vertices()) vertices.add(v.element());
+        List<String> edges = new ArrayList<>();
+        for (Edge<String, String> e : graph.edges()) edges.add(e.element());
+        assertEquals(Arrays.asList("A", "C", "D", "E", "B"), vertices);
+        assertEquals(Arrays.asList("e2", "e4", "e5", "e6"), edges);
+        assertEquals(6, copy.vertices().size());
+        assertTrue(graph.vertices().contains(graph.findVertex("B")));
+        assertFalse(graph.vertices().contains(copy.findVertex("F")));
+        assertTrue(graph.edges().contains(graph.findEdge("e6")));
+    }
+
+    @Test
+    void views_shouldStayValidWhileEditing() {
+        Collection<Vertex<String>> vertices = graph.vertices();
+        for (Vertex<String> v : vertices) graph.removeVertex(v);
+        assertEquals(5, vertices.size());
+        assertEquals(0, graph.numVertices());
+        assertEquals(0, graph.numEdges());
+    }
+}
@@ -0,0 +1,81 @@
+package model.pa.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentMapTest {
+
+    /**
+     * Key whose hash is chosen by the test, to force collisions
+     */
+    private static final class Key {
+        final int id;
+        final int hash;
+
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).id == id;
+        }
+
+        @Override
+        public int hashCode() { return hash; }
+    }
+
+    @Test
+    void randomEdits_shouldMatchHashMap() {
+        Random random = new Random(7);
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        Map<Key, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            //few distinct hashes so that collision nodes are exercised too
+            int id = random.nextInt(2000);
+            Key key = new Key(id, id % 3 == 0 ? id % 7 : id * 31);
+            if (random.nextInt(3) == 0) {
+                map = map.minus(key);
+                expected.remove(key);
+            } else {
+                map = map.plus(key, i);
+                expected.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Key, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Map<Key, Integer> iterated = new HashMap<>();
+        for (Map.Entry<Key, Integer> entry : map) iterated.put(entry.getKey(), entry.getValue());
+        assertEquals(expected, iterated);
+        assertEquals(expected.size(), map.keys().size());
+    }
+
+    @Test
+    void edits_shouldLeaveOlderVersionsUnchanged() {
+        PersistentMap<String, Integer> first = PersistentMap.<String, Integer>empty().plus("a", 1).plus("b", 2);
+        PersistentMap<String, Integer> second = first.plus("a", 10).minus("b").plus("c", 3);
+
+        assertEquals(2, first.size());
+        assertEquals(1, first.get("a"));
+        assertEquals(2, first.get("b"));
+        assertFalse(first.containsKey("c"));
+
+        assertEquals(2, second.size());
+        assertEquals(10, second.get("a"));
+        assertNull(second.get("b"));
+        assertEquals(3, second.get("c"));
+    }
+
+    @Test
+    void unchangedEdits_shouldReturnTheSameMap() {
+        PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().plus("a", 1);
+        assertSame(map, map.minus("b"));
+        assertTrue(map.minus("a").isEmpty());
+    }
+}
@@ -1,9 +1,16 @@
 package model.pa.model;
 
 
+import command.AddAirportCommand;
+import command.AddRouteCommand;
 import command.Command;
 import command.CommandHistory;
 import command.CopyCommand;
+import command.RemoveAirportCommand;
+import command.RemoveRouteCommand;
+import model.pa.graph.ConcurrentGraph;
+import model.pa.graph.GraphEdgeList;
+import model.pa.graph.PersistentGraph;
 import model.pa.graph.Vertex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -221,4 +228,88 @@ class AirportNetworkTest {
     }
 
 
+    @Test
+    void deltaCommands_shouldUndoAndRedo() {
+        CommandHistory history = new CommandHistory();
+        history.execute(new AddAirportCommand(a, new Airport("Nice", "NIC", 3, 2)));
+        history.execute(new AddRouteCommand(a, "Nice", "Lisboa", 1200));
+        history.execute(new RemoveAirportCommand(a, "Porto"));
+        history.execute(new RemoveRouteCommand(a, "Lisboa", "Milao"));
+        assertEquals(6, a.airportCount());
+        assertEquals(3, a.routeCount());
+
+        while (history.undo()) { }
+        assertEquals(6, a.airportCount());
+        assertEquals(5, a.routeCount());
+        assertNull(a.findAirport("Nice"));
+        assertEquals(8000, a.getEdgeBetweenTwoV(a.findAirport("Porto"), a.findAirport("New York")).element().getDistance());
+
+        while (history.redo()) { }
+        assertEquals(6, a.airportCount());
+        assertEquals(3, a.routeCount());
+        assertNull(a.findAirport("Porto"));
+        assertFalse(a.getNetwork().areAdjacent(a.findAirport("Lisboa"), a.findAirport("Milao")));
+    }
+
+    @Test
+    void copyCommand_shouldRedoAfterUndo() {
+        AirportNetwork p = new AirportNetwork(new PersistentGraph<>());
+        p.addAirport(new Airport("Lisboa", "LIS", 31, 25));
+        CommandHistory history = new CommandHistory();
+        Command command = new CopyCommand(p);
+        command.execute();
+        p.addAirport(new Airport("Porto", "POR", 67, 36));
+        history.push(command);
+
+        history.undo();
+        assertEquals(1, p.airportCount());
+        history.redo();
+        assertEquals(2, p.airportCount());
+        assertNotNull(p.findAirport("Porto"));
+    }
+
+    @Test
+    void constructor_shouldRejectGraphsItCantCopy() {
+        assertThrows(IllegalArgumentException.class, () -> new AirportNetwork(new GraphEdgeList<>()));
+        assertThrows(IllegalArgumentException.class, () -> new AirportNetwork(new ConcurrentGraph<>()));
+    }
+
+    @Test
+    void commandHistory_shouldForgetOldestBeyondDepth() {
+        CommandHistory history = new CommandHistory(2, Long.MAX_VALUE);
+        history.execute(new AddAirportCommand(a, new Airport("Nice", "NIC", 3, 2)));
+        history.execute(new AddAirportCommand(a, new Airport("Berlim", "BER", 6, 9)));
+        history.execute(new AddAirportCommand(a, new Airport("Coimbra", "COI", 3, 2)));
+        assertEquals(2, history.size());
+
+        while (history.undo()) { }
+        assertNotNull(a.findAirport("Nice"));
+        assertNull(a.findAirport("Berlim"));
+        assertTrue(history.canRedo());
+
+        history.execute(new AddAirportCommand(a, new Airport("Madrid", "MAD", 873, 21)));
+        assertFalse(history.canRedo());
+    }
+
+    @Test
+    void findAirport_shouldFollowAddRemoveAndRestore() {
+        assertSame(a.findAirport("Lisboa"), a.findAirport("LISBOA"));
+        assertSame(a.findAirport("new york"), a.findAirportByIata("NY"));
+        assertNull(a.findAirport("Nice"));
+
+        Command command = new CopyCommand(a);
+        command.execute();
+        Vertex<Airport> nice = a.addAirport(new Airport("Nice", "NIC", 3, 2));
+        assertSame(nice, a.findAirport("nice"));
+        assertSame(nice, a.findAirportByIata("NIC"));
+        a.removeAirport("lisboa");
+        assertNull(a.findAirport("Lisboa"));
+        assertNull(a.findAirportByIata("LIS"));
+
+        command.undo();
+        assertNull(a.findAirport("Nice"));
+        assertEquals("LIS", a.findAirport("lisboa").element().getAbreviation());
+        assertTrue(a.getNetwork().vertices().contains(a.findAirportByIata("LIS")));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package model.pa.model;
+
+import model.pa.graph.Edge;
+import model.pa.graph.Graph;
+import model.pa.graph.Vertex;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkStatisticsTest {
+
+    /**
+     * Checks the incremental statistics against values calculated from scratch
+     */
+    private void assertConsistent(AirportNetwork network) {
+        Graph<Airport, Route> graph = network.getNetwork();
+        NetworkStatistics statistics = network.getStatistics();
+        long sum = 0;
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (Edge<Route, Airport> e : graph.edges()) {
+            sum += e.element().getDistance();
+            min = Math.min(min, e.element().getDistance());
+            max = Math.max(max, e.element().getDistance());
+        }
+        assertEquals(graph.numEdges(), statistics.getRouteCount());
+        assertEquals(sum, statistics.getDistanceSum());
+        assertEquals(min, network.shortestRouteOnGraph().getDistance());
+        assertEquals(max, network.longestRouteOnGraph().getDistance());
+
+        List<Airport> isolated = new ArrayList<>();
+        Map<Integer, Integer> histogram = new TreeMap<>();
+        Map<Integer, Integer> degrees = new HashMap<>();
+        for (Vertex<Airport> v : graph.vertices()) {
+            if (graph.degree(v) == 0) isolated.add(v.element());
+            int connections = 0;
+            for (Edge<Route, Airport> e : graph.incidentEdges(v)) if (graph.opposite(v, e) != v) connections++;
+            histogram.merge(connections, 1, Integer::sum);
+            degrees.merge(graph.degree(v), 1, Integer::sum);
+        }
+        Collections.sort(isolated);
+        assertEquals(isolated, network.ListOfAirportsWithNoRoutesOrderedAlphabetically());
+        assertEquals(histogram, statistics.getDegreeHistogram());
+        for (int d = 0; d <= 6; d++) {
+            assertEquals(degrees.getOrDefault(d, 0), statistics.countWithRoutesBetween(d, d));
+        }
+
+        int previous = Integer.MAX_VALUE;
+        for (int count : network.top10Central().values()) {
+            assertTrue(count <= previous);
+            previous = count;
+        }
+        assertEquals(Math.min(10, graph.numVertices()), network.top10Central().size());
+    }
+
+    @Test
+    void randomEdits_shouldKeepTheStatisticsConsistent() {
+        Random random = new Random(3);
+        AirportNetwork network = new AirportNetwork();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            network.addAirport(new Airport("Airport " + i, "A" + i, i, i));
+            names.add("Airport " + i);
+        }
+        int next = 30;
+        for (int step = 0; step < 600; step++) {
+            String a1 = names.get(random.nextInt(names.size()));
+            String a2 = names.get(random.nextInt(names.size()));
+            switch (random.nextInt(5)) {
+                case 0:
+                    network.addAirport(new Airport("Airport " + next, "A" + next, 0, 0));
+                    names.add("Airport " + next++);
+                    break;
+                case 1:
+                    if (names.size() > 2) {
+                        network.removeAirport(a1);
+                        names.remove(a1);
+                    }
+                    break;
+                case 2:
+                    network.removeRoute(a1, a2);
+                    break;
+                default:
+                    if (!network.getNetwork().areAdjacent(network.findAirport(a1), network.findAirport(a2))) {
+                        network.addRoute(a1, a2, 1 + random.nextInt(5000));
+                    }
+            }
+            if (step % 25 == 0) assertConsistent(network);
+        }
+        assertConsistent(network);
+        network.reset();
+        assertConsistent(network);
+        assertEquals(Float.NaN, network.averageOfDistanceOfRoutes());
+    }
+}